@@ -9,6 +9,7 @@ import java.util.Random;
 import java.util.Set;
 
 import tree.LexicographicTree;
+import tree.TrieCursor;
 import org.jgrapht.graph.SimpleGraph;
 import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
@@ -109,9 +110,10 @@ public class Boggle {
 		Set<String> wordsFound = new HashSet<>();
         boolean[] visited = new boolean[size*size];
         StringBuilder currentWord = new StringBuilder();
+        TrieCursor cursor = dict.cursor();
     
     	for (String vertex : boggleGraph.vertexSet()) {
-            explore(boggleGraph, visited, vertex, currentWord, wordsFound);
+            explore(boggleGraph, visited, vertex, cursor, currentWord, wordsFound);
         }
         
         return wordsFound;		
@@ -195,25 +197,32 @@ public class Boggle {
 	 * @param boggleGraph Le graphe dans lequel on doit chercher
 	 * @param visited Un tableau indiquant les lettres déjà visitées ou non
 	 * @param currentVertex Le vertex sur base duquel on fait la recherche
+	 * @param cursor Le curseur du dictionnaire, positionné sur la séquence de lettre actuelle
 	 * @param currentWord La valeur de la séquence de lettre actuelle 
 	 * @param wordsFound L'ensemble des mots trouvés dans la grille qui sont présents dans le dictionnaire
 	 */
-    private void explore(Graph<String, DefaultEdge> boggleGraph, boolean[] visited, String currentVertex,StringBuilder currentWord, Set<String> wordsFound) { 	
+    private void explore(Graph<String, DefaultEdge> boggleGraph, boolean[] visited, String currentVertex, TrieCursor cursor, StringBuilder currentWord, Set<String> wordsFound) { 	
+		    //Aucun mot ne commence par la séquence : inutile d'aller plus loin
+		    if (!cursor.advance(currentVertex.charAt(0))) {
+		    	return;
+		    }
 		  	visited[this.indexVertex.get(currentVertex)] = true;
-		    StringBuilder nextFragment = new StringBuilder(currentWord).append(currentVertex.charAt(0));
+		    currentWord.append(currentVertex.charAt(0));
 	
-		    if (nextFragment.length() > 2 && this.dict.containsWord(nextFragment.toString())) {
-		        wordsFound.add(nextFragment.toString());
+		    if (currentWord.length() > 2 && cursor.isWord()) {
+		        wordsFound.add(currentWord.toString());
 		    }
 	
-		    if(dict.existPrefix(nextFragment.toString())) {
+		    if(cursor.hasChildren()) {
 		        for (String neighborVertex : Graphs.neighborListOf(boggleGraph, currentVertex)) {
 		            if (!visited[this.indexVertex.get(neighborVertex)]) {
-		                explore(boggleGraph, visited, neighborVertex, nextFragment, wordsFound);
+		                explore(boggleGraph, visited, neighborVertex, cursor, currentWord, wordsFound);
 		            }            
 		       }
 		    }
 		    
+		    currentWord.setLength(currentWord.length() - 1);
+		    cursor.retreat();
 		    visited[this.indexVertex.get(currentVertex)] = false;     
     }
 
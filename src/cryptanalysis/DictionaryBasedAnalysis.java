@@ -40,7 +40,8 @@ public class DictionaryBasedAnalysis {
 			throw new IllegalArgumentException("Le cryptogram ne peut pas être vide");
 		}
 		
-		this.dict = dict;
+		// Un snapshot figé peut être partagé par plusieurs analyses : chacune a sa propre vue
+		this.dict = dict.isFrozen() ? dict.view() : dict;
 		this.alphabet = new char[26];	
 		this.alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
 		this.wordsNotFound = new LinkedList<String>();			
@@ -0,0 +1,140 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Lecture d'un fichier de mots (un par ligne) directement depuis ses octets, projetés en mémoire par un FileChannel.
+ * Les octets sont décodés (ASCII, ISO-8859-1 ou UTF-8, toujours celui demandé et jamais celui de la plateforme)
+ * et nettoyés au fil de l'eau comme le ferait clearWord, dans un seul StringBuilder réutilisé pour tous les mots :
+ * aucune String n'est créée par ligne.
+ * Les lignes sont découpées comme par BufferedReader.readLine (\n, \r ou \r\n). Les octets qui ne forment pas
+ * un caractère valide sont ignorés, comme le caractère de remplacement produit par un Reader.
+ */
+final class ByteWordLoader {
+	//Taille maximale d'une fenêtre projetée en mémoire
+	private static final long WINDOW = 1L << 30;
+
+	private final Consumer<CharSequence> sink;
+	private final boolean utf8;
+	private final boolean latin1;
+	private final StringBuilder word = new StringBuilder(64);
+
+	//Décodage UTF-8 en cours (une séquence peut être coupée entre deux fenêtres)
+	private int codePoint;
+	private int pending;
+	private boolean lineStarted;
+	private boolean afterCarriageReturn;
+
+	private ByteWordLoader(Charset charset, Consumer<CharSequence> sink) {
+		this.sink = sink;
+		this.utf8 = charset.equals(StandardCharsets.UTF_8);
+		this.latin1 = charset.equals(StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Méthode qui lit tous les mots d'un fichier
+	 * @param filename Le fichier, un mot par ligne
+	 * @param charset Le jeu de caractères du fichier : US-ASCII, ISO-8859-1 ou UTF-8
+	 * @param sink Reçoit chaque mot nettoyé (le même StringBuilder, modifié après chaque appel)
+	 * @throws IOException Si la lecture échoue
+	 * @throws IllegalArgumentException Si le jeu de caractères n'est pas supporté
+	 */
+	static void load(String filename, Charset charset, Consumer<CharSequence> sink) throws IOException {
+		if (!charset.equals(StandardCharsets.US_ASCII) && !charset.equals(StandardCharsets.ISO_8859_1)
+				&& !charset.equals(StandardCharsets.UTF_8)) {
+			throw new IllegalArgumentException("Jeu de caractères non supporté : " + charset);
+		}
+
+		ByteWordLoader loader = new ByteWordLoader(charset, sink);
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long position = 0; position < size; position += WINDOW) {
+				loader.read(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position)));
+			}
+		}
+		loader.endOfFile();
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui décode une fenêtre du fichier
+	 * @param buffer La fenêtre projetée en mémoire
+	 */
+	private void read(MappedByteBuffer buffer) {
+		int limit = buffer.limit();
+
+		for (int i = 0; i < limit; i++) {
+			int b = buffer.get(i) & 0xFF;
+
+			if (b < 0x80) {
+				// Une séquence UTF-8 interrompue est ignorée
+				pending = 0;
+				accept((char) b);
+				continue;
+			}
+
+			afterCarriageReturn = false;
+			lineStarted = true;
+			if (latin1) {
+				accept((char) b);
+			} else if (utf8 && b >= 0xC0) {
+				// Premier octet d'une séquence de 2 à 4 octets
+				pending = b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : 1;
+				codePoint = b & (0x3F >> pending);
+			} else if (utf8 && pending > 0) {
+				codePoint = codePoint << 6 | (b & 0x3F);
+				if (--pending == 0 && codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+					accept((char) codePoint);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui traite un caractère décodé : fin de ligne, ou lettre gardée si clearWord la garde
+	 * @param c Le caractère
+	 */
+	private void accept(char c) {
+		if (c == '\n' || c == '\r') {
+			if (c == '\n' && afterCarriageReturn) {
+				afterCarriageReturn = false;
+				return;
+			}
+			afterCarriageReturn = c == '\r';
+			endOfLine();
+			return;
+		}
+
+		afterCarriageReturn = false;
+		lineStarted = true;
+		if (Character.isLetter(c) || c == '-' || c == '\'') {
+			word.append(c);
+		}
+	}
+
+	private void endOfLine() {
+		sink.accept(word);
+		word.setLength(0);
+		lineStarted = false;
+		pending = 0;
+	}
+
+	/**
+	 * Méthode qui termine la dernière ligne, si le fichier ne finit pas par un retour à la ligne
+	 */
+	private void endOfFile() {
+		if (lineStarted) {
+			endOfLine();
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package tree;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Arbre lexicographique partageable entre plusieurs threads.
+ * Les lectures (containsWord, existPrefix, ...) ne prennent aucun verrou : elles lisent les liens
+ * avec une sémantique acquire. Les insertions installent les nouveaux noeuds par compare-and-set,
+ * deux threads qui insèrent le même préfix en même temps se retrouvent donc sur le même noeud.
+ * Les lettres sont limitées à l'alphabet du dictionnaire (a-z, '-' et '\'') : au chargement d'un fichier,
+ * les mots qui contiennent d'autres lettres (accents, ...) sont ignorés et comptés (voir skippedLines).
+ */
+public class ConcurrentLexicographicTree {
+	private static final int ALPHABET_SIZE = TrieNode.getIndex('\'') + 1;
+	private static final VarHandle LINK;
+	private static final VarHandle LINKS;
+	private static final VarHandle END;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			LINK = MethodHandles.arrayElementVarHandle(Node[].class);
+			LINKS = lookup.findVarHandle(Node.class, "links", Node[].class);
+			END = lookup.findVarHandle(Node.class, "isEnd", boolean.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final Node root = new Node();
+	private final LongAdder size = new LongAdder();
+	
+	//Erreur du chargement et lignes ignorées (lettres hors de l'alphabet)
+	private IOException loadError;
+	private int skippedLines = 0;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates an empty concurrent lexicographic tree.
+	 */
+	public ConcurrentLexicographicTree() {
+
+	}
+
+	/**
+	 * Constructor : creates a concurrent lexicographic tree populated with words
+	 * (words with letters outside the alphabet are skipped, see skippedLines)
+	 * @param filename A text file containing the words to be inserted in the tree
+	 */
+	public ConcurrentLexicographicTree(String filename) {
+		this();
+
+		try(BufferedReader lecteur = new BufferedReader(new FileReader(filename))) {
+			String mot;
+
+			while ((mot = lecteur.readLine()) != null) {
+				try {
+					insertWord(mot);
+				} catch (IllegalArgumentException e) {
+					skippedLines++;
+				}
+			}
+
+		} catch (IOException e) {
+			loadError = e;
+		}
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the number of words present in the tree.
+	 * Every insertion that has returned before the call is counted.
+	 * @return The number of words present in the tree
+	 */
+	public int size() {
+		return size.intValue();
+	}
+
+	/**
+	 * Méthode qui return le nombre de lignes du fichier ignorées au chargement, parce qu'elles contiennent
+	 * des lettres hors de l'alphabet (LexicographicTree les garde, cet arbre ne peut pas les stocker)
+	 * @return Le nombre de lignes ignorées
+	 */
+	public int skippedLines() {
+		return skippedLines;
+	}
+
+	/**
+	 * Inserts a word in the tree if not already present. Can be called from any thread.
+	 * @param word A word
+	 * @throws IllegalArgumentException If the word contains a letter outside the alphabet
+	 */
+	public void insertWord(String word) {
+		word = LexicographicTree.clearWord(word);
+		int[] indexes = new int[word.length()];
+		for (int i = 0; i < word.length(); i++) {
+			indexes[i] = indexOf(word.charAt(i));
+		}
+
+		// Toutes les lettres sont vérifiées avant d'installer le moindre noeud : un mot refusé ne laisse pas de branche vide
+		Node current = root;
+		for (int index : indexes) {
+			current = current.getOrCreate(index);
+		}
+
+		if (END.compareAndSet(current, false, true)) {
+			size.increment();
+		}
+	}
+
+	/**
+	 * Determines if a word is present in the tree. Never blocks.
+	 * @param word A word
+	 * @return True if the word is present, false otherwise
+	 */
+	public boolean containsWord(String word) {
+		Node node = searchPrefix(word);
+		return node != null && node.isEnd;
+	}
+
+	/**
+	 * Méthode qui permet de savoir s'il existe des mots qui commencent par le préfix donné. Ne bloque jamais.
+	 * @param prefix Le préfix
+	 * @return True s'il existe des mots avec ce préfix sinon false
+	 */
+	public boolean existPrefix(String prefix) {
+		return searchPrefix(prefix) != null;
+	}
+
+	/**
+	 * Returns an alphabetic list of all words starting with the supplied prefix.
+	 * Words inserted during the call may or may not be returned.
+	 * @param prefix Expected prefix
+	 * @return The list of words starting with the supplied prefix
+	 */
+	public List<String> getWords(String prefix) {
+		List<String> result = new ArrayList<>();
+		Node node = searchPrefix(prefix);
+
+		if (node != null) {
+			dfs(node, new StringBuilder(prefix), -1, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns an alphabetic list of all words of a given length.
+	 * Words inserted during the call may or may not be returned.
+	 * @param length Expected word length
+	 * @return The list of words with the given length
+	 */
+	public List<String> getWordsOfLength(int length) {
+		List<String> result = new ArrayList<>();
+
+		if (length > 0) {
+			dfs(root, new StringBuilder(), length, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Méthode qui return l'erreur qui a interrompu le chargement du fichier de mots
+	 * @return L'erreur, null si aucune
+	 */
+	IOException loadError() {
+		return loadError;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui return le noeud qui correspond à la dernière lettre du prefix donné
+	 * @param prefix Séquence de lettres qui représente le prefix que l'on recherche
+	 * @return Le noeud qui représente la dernière lettre du prefix, si préfix non trouvé alors null
+	 */
+	private Node searchPrefix(String prefix) {
+		Node current = root;
+
+		for (int i = 0; i < prefix.length() && current != null; i++) {
+			int index = TrieNode.getIndex(prefix.charAt(i));
+			current = index >= 0 && index < ALPHABET_SIZE ? current.get(index) : null;
+		}
+
+		return current;
+	}
+
+	/**
+	 * Méthode qui ajoute à result les mots sous un noeud
+	 * @param node Le noeud courant
+	 * @param sb La chaîne de lettres courantes
+	 * @param wordsLength La taille des mots souhaités, -1 pour tous les mots
+	 * @param result La List de tous les mots trouvés
+	 */
+	private void dfs(Node node, StringBuilder sb, int wordsLength, List<String> result) {
+		if (node.isEnd && (wordsLength < 0 || sb.length() == wordsLength)) {
+			result.add(sb.toString());
+		}
+		if (sb.length() == wordsLength) {
+			return;
+		}
+
+		for (int i = 0; i < ALPHABET_SIZE; i++) {
+			Node child = node.get(i);
+			if (child != null) {
+				sb.append(TrieNode.getLetter(i));
+				dfs(child, sb, wordsLength, result);
+				sb.setLength(sb.length() - 1);
+			}
+		}
+	}
+
+	private static int indexOf(char c) {
+		int index = TrieNode.getIndex(c);
+		if (index < 0 || index >= ALPHABET_SIZE) {
+			throw new IllegalArgumentException("Caractère non supporté : " + c);
+		}
+		return index;
+	}
+
+	/**
+	 * Noeud dont les liens sont lus et installés de manière atomique
+	 */
+	private static final class Node {
+		private volatile Node[] links;
+		private volatile boolean isEnd;
+
+		/**
+		 * Méthode qui return l'enfant d'index donné, sans verrou
+		 * @param index L'index de la lettre
+		 * @return L'enfant, null s'il n'existe pas
+		 */
+		Node get(int index) {
+			Node[] current = links;
+			return current == null ? null : (Node) LINK.getAcquire(current, index);
+		}
+
+		/**
+		 * Méthode qui return l'enfant d'index donné, en l'installant par compare-and-set s'il n'existe pas
+		 * @param index L'index de la lettre
+		 * @return L'enfant (celui installé par ce thread ou par un autre)
+		 */
+		Node getOrCreate(int index) {
+			Node[] current = links;
+			if (current == null) {
+				LINKS.compareAndSet(this, null, new Node[ALPHABET_SIZE]);
+				current = links;
+			}
+
+			Node child = (Node) LINK.getAcquire(current, index);
+			if (child != null) {
+				return child;
+			}
+
+			Node created = new Node();
+			Node witness = (Node) LINK.compareAndExchange(current, index, null, created);
+			return witness == null ? created : witness;
+		}
+	}
+}
@@ -0,0 +1,463 @@
+package tree;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Automate acyclique minimal (DAWG) : les suffixes communs à plusieurs mots
+ * ("-ement", "-erions", ...) ne sont stockés qu'une seule fois.
+ * Les transitions de l'état s occupent les cases [edgeStart[s], edgeStart[s+1]) des tableaux
+ * labels / targets, triées par index de lettre.
+ * Les tableaux sont des buffers : ils peuvent venir du tas (construction) ou directement
+ * d'un fichier projeté en mémoire (voir TrieSnapshot), sans aucune copie.
+ * Un état étant partagé par plusieurs mots, l'automate ne conserve pas les poids des mots (ils valent tous 0).
+ */
+final class Dawg implements PackedTrie {
+	private final IntBuffer edgeStart;
+	private final CharBuffer labels;
+	private final IntBuffer targets;
+	private final LongBuffer finals;
+	private final LongBuffer lengthMasks;
+	private final IntBuffer counts;
+	private final int root;
+	private final int alphabetSize;
+
+	Dawg(IntBuffer edgeStart, CharBuffer labels, IntBuffer targets, LongBuffer finals, LongBuffer lengthMasks,
+			IntBuffer counts, int root, int alphabetSize) {
+		this.edgeStart = edgeStart;
+		this.labels = labels;
+		this.targets = targets;
+		this.finals = finals;
+		this.lengthMasks = lengthMasks;
+		this.counts = counts;
+		this.root = root;
+		this.alphabetSize = alphabetSize;
+	}
+
+	@Override
+	public int root() {
+		return root;
+	}
+
+	@Override
+	public int child(int node, int index) {
+		if (index < 0 || index >= alphabetSize) {
+			return -1;
+		}
+
+		int low = edgeStart.get(node);
+		int high = edgeStart.get(node + 1) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int label = labels.get(middle);
+
+			if (label < index) {
+				low = middle + 1;
+			} else if (label > index) {
+				high = middle - 1;
+			} else {
+				return targets.get(middle);
+			}
+		}
+
+		return -1;
+	}
+
+	@Override
+	public boolean isEnd(int node) {
+		return (finals.get(node >>> 6) & (1L << node)) != 0;
+	}
+
+	@Override
+	public long lengthMask(int node) {
+		return lengthMasks.get(node);
+	}
+
+	@Override
+	public int wordCount(int node) {
+		return counts.get(node);
+	}
+
+	@Override
+	public int weight(int node) {
+		return 0;
+	}
+
+	@Override
+	public int maxWeight(int node) {
+		return 0;
+	}
+
+	@Override
+	public int alphabetSize() {
+		return alphabetSize;
+	}
+
+	@Override
+	public int nodeCount() {
+		return stateCount();
+	}
+
+	@Override
+	public long slotCount() {
+		return edgeCount();
+	}
+
+	@Override
+	public long usedSlots() {
+		return edgeCount();
+	}
+
+	@Override
+	public boolean isDirect() {
+		return edgeStart.isDirect();
+	}
+
+	/**
+	 * Méthode qui return le nombre d'états de l'automate
+	 * @return Le nombre d'états
+	 */
+	int stateCount() {
+		return edgeStart.limit() - 1;
+	}
+
+	/**
+	 * Méthode qui return le nombre de transitions de l'automate
+	 * @return Le nombre de transitions
+	 */
+	int edgeCount() {
+		return labels.limit();
+	}
+
+	/**
+	 * Méthode qui return le nombre d'octets nécessaires pour écrire l'automate (voir writeTo)
+	 * @return Le nombre d'octets
+	 */
+	@Override
+	public long byteSize() {
+		return (finals.limit() + lengthMasks.limit()) * 8L + (edgeStart.limit() + counts.limit() + targets.limit()) * 4L + labels.limit() * 2L;
+	}
+
+	/**
+	 * Méthode qui écrit les tableaux de l'automate dans un buffer, dans l'ordre attendu par read
+	 * @param out Le buffer de destination
+	 */
+	void writeTo(ByteBuffer out) {
+		out.asLongBuffer().put(finals.duplicate().rewind());
+		out.position(out.position() + finals.limit() * 8);
+		out.asLongBuffer().put(lengthMasks.duplicate().rewind());
+		out.position(out.position() + lengthMasks.limit() * 8);
+		out.asIntBuffer().put(edgeStart.duplicate().rewind());
+		out.position(out.position() + edgeStart.limit() * 4);
+		out.asIntBuffer().put(counts.duplicate().rewind());
+		out.position(out.position() + counts.limit() * 4);
+		out.asIntBuffer().put(targets.duplicate().rewind());
+		out.position(out.position() + targets.limit() * 4);
+		out.asCharBuffer().put(labels.duplicate().rewind());
+		out.position(out.position() + labels.limit() * 2);
+	}
+
+	/**
+	 * Méthode qui crée un automate dont les tableaux sont des vues sur un buffer écrit par writeTo.
+	 * Rien n'est copié : les recherches lisent directement le buffer.
+	 * @param in Le buffer source, positionné au début des tableaux
+	 * @param stateCount Le nombre d'états
+	 * @param edgeCount Le nombre de transitions
+	 * @param root L'état racine
+	 * @param alphabetSize Le nombre d'index de lettres utilisés
+	 * @return L'automate
+	 */
+	static Dawg read(ByteBuffer in, int stateCount, int edgeCount, int root, int alphabetSize) {
+		LongBuffer finals = slice(in, (stateCount + 63) / 64 * 8).asLongBuffer();
+		LongBuffer lengthMasks = slice(in, stateCount * 8).asLongBuffer();
+		IntBuffer edgeStart = slice(in, (stateCount + 1) * 4).asIntBuffer();
+		IntBuffer counts = slice(in, stateCount * 4).asIntBuffer();
+		IntBuffer targets = slice(in, edgeCount * 4).asIntBuffer();
+		CharBuffer labels = slice(in, edgeCount * 2).asCharBuffer();
+
+		return new Dawg(edgeStart, labels, targets, finals, lengthMasks, counts, root, alphabetSize);
+	}
+
+	private static ByteBuffer slice(ByteBuffer in, int length) {
+		ByteBuffer slice = in.slice(in.position(), length).order(in.order());
+		in.position(in.position() + length);
+		return slice;
+	}
+
+	/**
+	 * Construction incrémentale (algorithme de Daciuk) à partir de mots triés.
+	 * Seul le chemin du dernier mot ajouté n'est pas encore minimisé : dès qu'un mot
+	 * s'écarte de ce chemin, les états abandonnés sont remplacés par un état équivalent
+	 * déjà enregistré, ou enregistrés à leur tour.
+	 * N'importe quel ordre lexicographique convient (String.compareTo, ordre de l'arbre, ...)
+	 * tant qu'un mot n'a jamais besoin de modifier un état déjà enregistré.
+	 */
+	static final class Builder {
+		private PendingState[] path = new PendingState[32];
+		private int pathLength = 0;
+		private int size = 0;
+
+		private int[] edgeStart = new int[1024];
+		private char[] labels = new char[4096];
+		private int[] targets = new int[4096];
+		private final BitSet finals = new BitSet();
+		private long[] lengthMasks = new long[1024];
+		private int[] counts = new int[1024];
+		private int stateCount = 0;
+		private int edgeCount = 0;
+		private int alphabetSize = 0;
+
+		//Table de hachage (adressage ouvert) des états enregistrés, 0 = case vide, sinon id + 1
+		private int[] register = new int[1024];
+		private int registered = 0;
+
+		Builder() {
+			path[0] = new PendingState();
+		}
+
+		/**
+		 * Méthode qui ajoute un mot à l'automate. Les mots doivent arriver triés.
+		 * @param word Le mot (déjà nettoyé des caractères non autorisés)
+		 * @throws IllegalArgumentException Si le mot arrive trop tard (mots non triés)
+		 */
+		void add(CharSequence word) {
+			int common = 0;
+			while (common < pathLength && common < word.length() && path[common + 1].label == word.charAt(common)) {
+				common++;
+			}
+			minimize(common);
+
+			if (common == word.length() && path[common].isFinal) {
+				return;
+			}
+			if (common < word.length() && path[common].hasEdge(TrieNode.getIndex(word.charAt(common)))) {
+				throw new IllegalArgumentException("Les mots doivent être triés : " + word + " arrive trop tard");
+			}
+
+			for (int i = common; i < word.length(); i++) {
+				PendingState state = new PendingState();
+				state.label = word.charAt(i);
+				int index = TrieNode.getIndex(state.label);
+				if (index < 0) {
+					throw new IllegalArgumentException("Caractère non supporté : " + state.label);
+				}
+				path[pathLength].addPending(index);
+
+				if (pathLength + 2 > path.length) {
+					path = Arrays.copyOf(path, path.length * 2);
+				}
+				path[++pathLength] = state;
+			}
+			path[pathLength].isFinal = true;
+			size++;
+		}
+
+		/**
+		 * Méthode qui termine la construction
+		 * @return L'automate minimal
+		 */
+		Dawg build() {
+			minimize(0);
+			int root = registerState(path[0]);
+
+			edgeStart = Arrays.copyOf(edgeStart, stateCount + 1);
+			edgeStart[stateCount] = edgeCount;
+			long[] finalWords = Arrays.copyOf(finals.toLongArray(), (stateCount + 63) / 64);
+
+			return new Dawg(IntBuffer.wrap(edgeStart), CharBuffer.wrap(Arrays.copyOf(labels, edgeCount)),
+					IntBuffer.wrap(Arrays.copyOf(targets, edgeCount)), LongBuffer.wrap(finalWords),
+					LongBuffer.wrap(Arrays.copyOf(lengthMasks, stateCount)), IntBuffer.wrap(Arrays.copyOf(counts, stateCount)),
+					root, alphabetSize);
+		}
+
+		/**
+		 * Méthode qui return le nombre de mots différents ajoutés
+		 * @return Le nombre de mots
+		 */
+		int size() {
+			return size;
+		}
+
+		/**
+		 * Méthode qui enregistre (minimise) les états du chemin plus profonds que la profondeur donnée
+		 * @param depth La profondeur à partir de laquelle le chemin est conservé
+		 */
+		private void minimize(int depth) {
+			while (pathLength > depth) {
+				int id = registerState(path[pathLength]);
+				path[pathLength] = null;
+				pathLength--;
+				path[pathLength].resolvePending(id);
+			}
+		}
+
+		/**
+		 * Méthode qui return l'id d'un état équivalent déjà enregistré, ou enregistre l'état
+		 * @param state L'état à enregistrer, dont toutes les transitions mènent à des états enregistrés
+		 * @return L'id de l'état
+		 */
+		private int registerState(PendingState state) {
+			state.sortEdges();
+			int hash = state.hash();
+			int mask = register.length - 1;
+
+			for (int slot = hash & mask; register[slot] != 0; slot = (slot + 1) & mask) {
+				if (sameState(register[slot] - 1, state)) {
+					return register[slot] - 1;
+				}
+			}
+
+			int id = appendState(state);
+			if (++registered * 2 > register.length) {
+				rehash();
+			}
+			insertInRegister(id, hash);
+			return id;
+		}
+
+		private boolean sameState(int id, PendingState state) {
+			int start = edgeStart[id];
+			int end = id + 1 < stateCount ? edgeStart[id + 1] : edgeCount;
+
+			if (finals.get(id) != state.isFinal || end - start != state.edgeCount) {
+				return false;
+			}
+			for (int k = 0; k < state.edgeCount; k++) {
+				if (labels[start + k] != state.indexes[k] || targets[start + k] != state.targets[k]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private int appendState(PendingState state) {
+			int id = stateCount++;
+			if (stateCount + 1 > edgeStart.length) {
+				edgeStart = Arrays.copyOf(edgeStart, edgeStart.length * 2);
+				lengthMasks = Arrays.copyOf(lengthMasks, edgeStart.length);
+				counts = Arrays.copyOf(counts, edgeStart.length);
+			}
+			if (edgeCount + state.edgeCount > labels.length) {
+				int capacity = Math.max(labels.length * 2, edgeCount + state.edgeCount);
+				labels = Arrays.copyOf(labels, capacity);
+				targets = Arrays.copyOf(targets, capacity);
+			}
+
+			edgeStart[id] = edgeCount;
+			long mask = state.isFinal ? 1L : 0L;
+			int count = state.isFinal ? 1 : 0;
+			for (int k = 0; k < state.edgeCount; k++) {
+				labels[edgeCount] = (char) state.indexes[k];
+				targets[edgeCount] = state.targets[k];
+				mask |= TrieNode.shiftLengths(lengthMasks[state.targets[k]], 1);
+				count += counts[state.targets[k]];
+				alphabetSize = Math.max(alphabetSize, state.indexes[k] + 1);
+				edgeCount++;
+			}
+			if (state.isFinal) {
+				finals.set(id);
+			}
+			lengthMasks[id] = mask;
+			counts[id] = count;
+			return id;
+		}
+
+		private void rehash() {
+			int[] old = register;
+			register = new int[old.length * 2];
+			for (int entry : old) {
+				if (entry != 0) {
+					insertInRegister(entry - 1, hashOf(entry - 1));
+				}
+			}
+		}
+
+		private void insertInRegister(int id, int hash) {
+			int mask = register.length - 1;
+			int slot = hash & mask;
+			while (register[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			register[slot] = id + 1;
+		}
+
+		private int hashOf(int id) {
+			int start = edgeStart[id];
+			int end = id + 1 < stateCount ? edgeStart[id + 1] : edgeCount;
+			int hash = finals.get(id) ? 1 : 0;
+			for (int k = start; k < end; k++) {
+				hash = hash * 31 + labels[k];
+				hash = hash * 31 + targets[k];
+			}
+			return mix(hash);
+		}
+
+		private static int mix(int hash) {
+			hash *= 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+
+		/**
+		 * État du chemin courant, pas encore minimisé. Sa dernière transition peut
+		 * mener à l'état suivant du chemin (pending), dont l'id n'est pas encore connu.
+		 */
+		private static final class PendingState {
+			char label;
+			boolean isFinal;
+			int[] indexes = new int[2];
+			int[] targets = new int[2];
+			int edgeCount = 0;
+
+			void addPending(int index) {
+				if (edgeCount == indexes.length) {
+					indexes = Arrays.copyOf(indexes, edgeCount * 2);
+					targets = Arrays.copyOf(targets, edgeCount * 2);
+				}
+				indexes[edgeCount] = index;
+				targets[edgeCount] = -1;
+				edgeCount++;
+			}
+
+			void resolvePending(int id) {
+				targets[edgeCount - 1] = id;
+			}
+
+			boolean hasEdge(int index) {
+				for (int k = 0; k < edgeCount; k++) {
+					if (indexes[k] == index) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			void sortEdges() {
+				for (int i = 1; i < edgeCount; i++) {
+					int index = indexes[i];
+					int target = targets[i];
+					int j = i - 1;
+					while (j >= 0 && indexes[j] > index) {
+						indexes[j + 1] = indexes[j];
+						targets[j + 1] = targets[j];
+						j--;
+					}
+					indexes[j + 1] = index;
+					targets[j + 1] = target;
+				}
+			}
+
+			int hash() {
+				int hash = isFinal ? 1 : 0;
+				for (int k = 0; k < edgeCount; k++) {
+					hash = hash * 31 + indexes[k];
+					hash = hash * 31 + targets[k];
+				}
+				return mix(hash);
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package tree;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Conteneur d'un dictionnaire qui peut être rechargé pendant qu'il est utilisé.
+ * Il contient toujours un snapshot figé (voir LexicographicTree.freeze) : get() ne prend aucun verrou
+ * et return un dictionnaire complet, qui ne changera plus. Un rechargement construit et fige la version
+ * suivante en arrière-plan, puis la publie d'un coup : les lectures suivantes la voient, tandis qu'une
+ * recherche déjà commencée (Boggle, cryptanalyse, ...) continue sur le snapshot qu'elle a obtenu par get().
+ * Si plusieurs rechargements se chevauchent, le plus récent gagne : une version plus ancienne
+ * qui termine en retard n'est pas publiée.
+ */
+public final class DictionaryHolder {
+	private final AtomicReference<Version> current;
+	private final AtomicLong versions = new AtomicLong();
+	private final Executor executor;
+
+	/**
+	 * Constructeur : crée un conteneur dont les rechargements s'exécutent sur le pool fork-join commun
+	 * @param initial Le dictionnaire de départ (il est figé s'il ne l'est pas déjà)
+	 */
+	public DictionaryHolder(LexicographicTree initial) {
+		this(initial, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructeur : crée un conteneur dont les rechargements s'exécutent sur un executor donné
+	 * @param initial Le dictionnaire de départ (il est figé s'il ne l'est pas déjà)
+	 * @param executor L'executor qui construit les nouvelles versions
+	 */
+	public DictionaryHolder(LexicographicTree initial, Executor executor) {
+		this.current = new AtomicReference<>(new Version(initial.freeze(), versions.getAndIncrement()));
+		this.executor = executor;
+	}
+
+	/**
+	 * Méthode qui return la version publiée du dictionnaire, sans verrou
+	 * @return Le snapshot figé courant
+	 */
+	public LexicographicTree get() {
+		return current.get().tree;
+	}
+
+	/**
+	 * Méthode qui return le numéro de la version publiée (0 pour le dictionnaire de départ)
+	 * @return Le numéro de version
+	 */
+	public long version() {
+		return current.get().number;
+	}
+
+	/**
+	 * Méthode qui fige et publie un dictionnaire déjà construit
+	 * @param tree Le nouveau dictionnaire
+	 * @return Le dictionnaire publié (le snapshot de tree)
+	 */
+	public LexicographicTree publish(LexicographicTree tree) {
+		long number = versions.getAndIncrement();
+		return publish(new Version(tree.freeze(), number));
+	}
+
+	/**
+	 * Méthode qui construit, fige et publie une nouvelle version en arrière-plan.
+	 * Si la construction échoue, la version courante reste en place et le futur se termine en erreur.
+	 * @param builder Construit le nouveau dictionnaire (appelé sur l'executor)
+	 * @return Un futur qui se termine avec le dictionnaire publié à la fin du rechargement
+	 */
+	public CompletableFuture<LexicographicTree> reload(Supplier<? extends LexicographicTree> builder) {
+		long number = versions.getAndIncrement();
+		return CompletableFuture.supplyAsync(() -> publish(new Version(builder.get().freeze(), number)), executor);
+	}
+
+	/**
+	 * Méthode qui recharge le dictionnaire depuis un fichier de mots en arrière-plan (voir reload(Supplier)).
+	 * Un fichier illisible ne remplace pas la version courante par un dictionnaire vide :
+	 * le futur se termine alors avec une UncheckedIOException.
+	 * @param filename Un fichier texte contenant les mots
+	 * @return Un futur qui se termine avec le dictionnaire publié à la fin du rechargement
+	 */
+	public CompletableFuture<LexicographicTree> reload(String filename) {
+		return reload(() -> {
+			LexicographicTree tree = new LexicographicTree(filename);
+			if (tree.loadError() != null) {
+				throw new UncheckedIOException(tree.loadError());
+			}
+			return tree;
+		});
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui publie une version, sauf si une version plus récente a déjà été publiée
+	 * @param version La version
+	 * @return Le dictionnaire publié après l'opération
+	 */
+	private LexicographicTree publish(Version version) {
+		while (true) {
+			Version published = current.get();
+			if (published.number > version.number) {
+				return published.tree;
+			}
+			if (current.compareAndSet(published, version)) {
+				return version.tree;
+			}
+		}
+	}
+
+	/**
+	 * Un snapshot et son numéro de version
+	 */
+	private static final class Version {
+		private final LexicographicTree tree;
+		private final long number;
+
+		Version(LexicographicTree tree, long number) {
+			this.tree = tree;
+			this.number = number;
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * Arbre lexicographique compacté en double tableau (base / check).
+ * L'enfant d'index c du noeud s se trouve à la case t = base[s] + c, à condition que check[t] == s.
+ * Un base négatif indique que le noeud termine un mot.
+ * Le nombre de mots de chaque sous-arbre est conservé dans counts (pour rank / select),
+ * le masque des longueurs de mots dans lengths (pour élaguer getWordsOfLength, voir TrieNode.getLengths).
+ * Les poids (weights / maxWeights, pour topK) ne sont conservés que si l'arbre source en contient.
+ */
+final class DoubleArrayTrie implements PackedTrie {
+	private static final int FREE = -1;
+	private static final int ROOT = 0;
+
+	private final int[] base;
+	private final int[] check;
+	private final int[] counts;
+	private final long[] lengths;
+	//null si aucun mot n'a de poids
+	private final int[] weights;
+	private final int[] maxWeights;
+	private final int alphabetSize;
+	//Nombre de cases libérées par remove, récupérées par une reconstruction
+	private int freeSlots = 0;
+
+	private DoubleArrayTrie(int[] base, int[] check, int[] counts, long[] lengths, int[] weights, int[] maxWeights,
+			int alphabetSize) {
+		this.base = base;
+		this.check = check;
+		this.counts = counts;
+		this.lengths = lengths;
+		this.weights = weights;
+		this.maxWeights = maxWeights;
+		this.alphabetSize = alphabetSize;
+	}
+
+	/**
+	 * Méthode qui permet de construire le double tableau à partir d'un arbre de TrieNode
+	 * @param root La racine de l'arbre à compacter
+	 * @return L'arbre compacté
+	 */
+	static DoubleArrayTrie build(TrieNode root) {
+		return build(new TrieCursor.OfNodes(root));
+	}
+
+	/**
+	 * Méthode qui permet de construire le double tableau à partir de n'importe quel arbre
+	 * (un double tableau qui contient des cases libérées par exemple)
+	 * @param cursor Un curseur positionné sur la racine de l'arbre à compacter
+	 * @return L'arbre compacté
+	 */
+	static DoubleArrayTrie build(TrieCursor cursor) {
+		return new Builder().build(cursor);
+	}
+
+	@Override
+	public int root() {
+		return ROOT;
+	}
+
+	@Override
+	public int child(int node, int index) {
+		if (index < 0) {
+			return -1;
+		}
+
+		int t = Math.abs(base[node]) + index;
+		if (t < check.length && check[t] == node) {
+			return t;
+		}
+
+		return -1;
+	}
+
+	@Override
+	public boolean isEnd(int node) {
+		return base[node] < 0;
+	}
+
+	@Override
+	public long lengthMask(int node) {
+		return lengths[node];
+	}
+
+	@Override
+	public int wordCount(int node) {
+		return counts[node];
+	}
+
+	@Override
+	public int weight(int node) {
+		return weights == null ? 0 : weights[node];
+	}
+
+	@Override
+	public int maxWeight(int node) {
+		return maxWeights == null ? 0 : maxWeights[node];
+	}
+
+	@Override
+	public int alphabetSize() {
+		return alphabetSize;
+	}
+
+	@Override
+	public int nodeCount() {
+		// La racine est la seule case utilisée marquée FREE
+		int nodes = 1;
+		for (int t = 0; t < check.length; t++) {
+			if (check[t] != FREE) {
+				nodes++;
+			}
+		}
+		return nodes;
+	}
+
+	@Override
+	public long slotCount() {
+		return check.length;
+	}
+
+	@Override
+	public long usedSlots() {
+		return nodeCount();
+	}
+
+	@Override
+	public long byteSize() {
+		int arrays = weights == null ? 3 : 5;
+		return arrays * TreeStats.align(TreeStats.ARRAY_HEADER + check.length * 4L)
+				+ TreeStats.align(TreeStats.ARRAY_HEADER + check.length * 8L);
+	}
+
+	@Override
+	public boolean isDirect() {
+		return false;
+	}
+
+	/**
+	 * Méthode qui return le nombre de cases des tableaux base / check
+	 * @return Le nombre de cases
+	 */
+	int capacity() {
+		return check.length;
+	}
+
+	/**
+	 * Méthode qui return le nombre de cases libérées par remove depuis la construction
+	 * @return Le nombre de cases libres
+	 */
+	int freeSlots() {
+		return freeSlots;
+	}
+
+	/**
+	 * Méthode qui supprime un mot : la marque de fin est retirée, les compteurs et les masques du chemin sont mis à jour
+	 * et les cases des noeuds qui ne mènent plus à aucun mot sont libérées
+	 * @param word Le mot nettoyé
+	 * @return True si le mot était présent sinon false
+	 */
+	boolean remove(CharSequence word) {
+		int[] path = new int[word.length() + 1];
+		path[0] = ROOT;
+
+		for (int i = 0; i < word.length(); i++) {
+			path[i + 1] = child(path[i], TrieNode.getIndex(word.charAt(i)));
+			if (path[i + 1] < 0) {
+				return false;
+			}
+		}
+
+		int node = path[word.length()];
+		if (!isEnd(node)) {
+			return false;
+		}
+
+		base[node] = -base[node];
+		for (int d = word.length(); d >= 0; d--) {
+			int t = path[d];
+			counts[t]--;
+			if (d > 0 && counts[t] == 0) {
+				check[t] = FREE;
+				base[t] = 0;
+				lengths[t] = 0;
+				freeSlots++;
+			} else {
+				updateFromChildren(t);
+			}
+		}
+		if (weights != null) {
+			weights[node] = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Méthode qui recalcule le masque des longueurs et le poids maximal d'un noeud à partir de son mot et de ses enfants
+	 * @param node Le noeud
+	 */
+	private void updateFromChildren(int node) {
+		boolean end = isEnd(node);
+		long mask = end ? 1L : 0L;
+		int max = end && weights != null ? weights[node] : 0;
+		for (int i = 0; i < alphabetSize; i++) {
+			int child = child(node, i);
+			if (child >= 0) {
+				mask |= TrieNode.shiftLengths(lengths[child], 1);
+				if (weights != null) {
+					max = Math.max(max, maxWeights[child]);
+				}
+			}
+		}
+		lengths[node] = mask;
+		if (weights != null) {
+			maxWeights[node] = max;
+		}
+	}
+
+	/**
+	 * Construction du double tableau. Les cases libres sont chaînées entre elles
+	 * pour trouver rapidement un base compatible avec les enfants d'un noeud.
+	 */
+	private static final class Builder {
+		private int[] base = new int[0];
+		private int[] check = new int[0];
+		private int[] counts = new int[0];
+		private long[] lengths = new long[0];
+		private int[] weights;
+		private int[] maxWeights;
+		private int[] nextFree = new int[0];
+		private int[] prevFree = new int[0];
+		private int freeHead = -1;
+		private int freeTail = -1;
+		private int used = 0;
+		private int alphabetSize = 0;
+		private final int[][] codesByDepth = new int[64][];
+
+		DoubleArrayTrie build(TrieCursor cursor) {
+			if (cursor.maxWeight() > 0) {
+				weights = new int[0];
+				maxWeights = new int[0];
+			}
+			ensureCapacity(1024);
+			occupy(ROOT, FREE);
+			place(cursor, ROOT, 0);
+
+			return new DoubleArrayTrie(Arrays.copyOf(base, used), Arrays.copyOf(check, used), Arrays.copyOf(counts, used),
+					Arrays.copyOf(lengths, used), weights == null ? null : Arrays.copyOf(weights, used), maxWeights == null ? null : Arrays.copyOf(maxWeights, used),
+					alphabetSize);
+		}
+
+		/**
+		 * Méthode qui place les enfants d'un noeud puis, récursivement, leurs descendants
+		 * @param cursor Le curseur positionné sur le noeud de l'arbre source
+		 * @param id La case du noeud dans le double tableau
+		 * @param depth La profondeur du noeud (pour réutiliser les tableaux de travail)
+		 */
+		private void place(TrieCursor cursor, int id, int depth) {
+			int[] codes = codesAt(depth);
+			int n = 0;
+
+			for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+				if (n == codes.length) {
+					codes = Arrays.copyOf(codes, n * 2);
+					if (depth < codesByDepth.length) {
+						codesByDepth[depth] = codes;
+					}
+				}
+				codes[n++] = i;
+			}
+
+			int b = 1;
+			if (n > 0) {
+				b = findBase(codes, n);
+				for (int k = 0; k < n; k++) {
+					occupy(b + codes[k], id);
+				}
+				alphabetSize = Math.max(alphabetSize, codes[n - 1] + 1);
+			}
+			base[id] = cursor.isWord() ? -b : b;
+			counts[id] = cursor.wordCount();
+			lengths[id] = cursor.lengthMask();
+			if (weights != null) {
+				weights[id] = cursor.isWord() ? cursor.weight() : 0;
+				maxWeights[id] = cursor.maxWeight();
+			}
+
+			for (int k = 0; k < n; k++) {
+				cursor.advanceIndex(codes[k]);
+				place(cursor, b + codes[k], depth + 1);
+				cursor.retreat();
+			}
+		}
+
+		private int[] codesAt(int depth) {
+			if (depth >= codesByDepth.length) {
+				return new int[TrieNode.getIndex('\'') + 1];
+			}
+			if (codesByDepth[depth] == null) {
+				codesByDepth[depth] = new int[TrieNode.getIndex('\'') + 1];
+			}
+			return codesByDepth[depth];
+		}
+
+		/**
+		 * Méthode qui cherche le premier base pour lequel toutes les cases des enfants sont libres
+		 * @param codes Les index des enfants, triés
+		 * @param n Le nombre d'enfants
+		 * @return Le base trouvé
+		 */
+		private int findBase(int[] codes, int n) {
+			int first = codes[0];
+			int p = freeHead;
+
+			while (true) {
+				if (p < 0) {
+					p = check.length;
+					ensureCapacity(check.length * 2);
+				}
+
+				int b = p - first;
+				if (b >= 1) {
+					ensureCapacity(b + codes[n - 1] + 1);
+
+					boolean fits = true;
+					for (int k = 1; k < n && fits; k++) {
+						fits = check[b + codes[k]] == FREE;
+					}
+					if (fits) {
+						return b;
+					}
+				}
+				p = nextFree[p];
+			}
+		}
+
+		/**
+		 * Méthode qui retire une case de la liste des cases libres et lui donne un parent
+		 * @param t La case
+		 * @param parent Le noeud parent
+		 */
+		private void occupy(int t, int parent) {
+			int prev = prevFree[t];
+			int next = nextFree[t];
+
+			if (prev >= 0) {
+				nextFree[prev] = next;
+			} else {
+				freeHead = next;
+			}
+			if (next >= 0) {
+				prevFree[next] = prev;
+			} else {
+				freeTail = prev;
+			}
+
+			check[t] = parent;
+			base[t] = 1;
+			used = Math.max(used, t + 1);
+		}
+
+		/**
+		 * Méthode qui agrandit les tableaux et chaîne les nouvelles cases à la fin de la liste libre
+		 * @param capacity La taille minimale souhaitée
+		 */
+		private void ensureCapacity(int capacity) {
+			int oldCapacity = check.length;
+			if (capacity <= oldCapacity) {
+				return;
+			}
+
+			int newCapacity = Math.max(capacity, oldCapacity * 2);
+			base = Arrays.copyOf(base, newCapacity);
+			check = Arrays.copyOf(check, newCapacity);
+			counts = Arrays.copyOf(counts, newCapacity);
+			lengths = Arrays.copyOf(lengths, newCapacity);
+			if (weights != null) {
+				weights = Arrays.copyOf(weights, newCapacity);
+				maxWeights = Arrays.copyOf(maxWeights, newCapacity);
+			}
+			nextFree = Arrays.copyOf(nextFree, newCapacity);
+			prevFree = Arrays.copyOf(prevFree, newCapacity);
+
+			for (int t = oldCapacity; t < newCapacity; t++) {
+				check[t] = FREE;
+				prevFree[t] = freeTail;
+				nextFree[t] = -1;
+				if (freeTail >= 0) {
+					nextFree[freeTail] = t;
+				} else {
+					freeHead = t;
+				}
+				freeTail = t;
+			}
+		}
+	}
+}
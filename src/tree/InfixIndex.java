@@ -0,0 +1,381 @@
+package tree;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Index des mots par morceaux de 1 à 3 lettres (n-grammes), pour trouver les mots qui contiennent une suite de lettres
+ * n'importe où (voir LexicographicTree.getWordsContaining).
+ * Chaque mot reçoit un numéro, dans l'ordre d'ajout, et ses lettres sont rangées bout à bout dans un seul tableau.
+ * Pour chaque n-gramme, l'index garde la liste croissante des numéros des mots qui le contiennent.
+ * Les lettres hors de l'alphabet de l'arbre (accents, ...), que clearWord garde, partagent toutes un même symbole :
+ * leurs listes contiennent donc trop de mots, et les lettres des mots trouvés sont contrôlées.
+ * Une suite de 1 à 3 lettres de l'alphabet est trouvée directement dans sa liste ; une suite plus longue parcourt
+ * la plus courte des listes de ses trigrammes, vérifie les autres par recherche dichotomique,
+ * puis contrôle les lettres des mots restants.
+ * Une table de hachage (adressage ouvert) retrouve le numéro d'un mot pour le supprimer sans parcourir de liste.
+ * Un mot supprimé est seulement marqué : sa place n'est récupérée qu'en reconstruisant l'index.
+ */
+final class InfixIndex {
+	private static final int LETTERS = TrieNode.getIndex('\'') + 1;
+	//Symbole commun à toutes les lettres hors de l'alphabet
+	private static final int OTHER = LETTERS;
+	private static final int SYMBOLS = LETTERS + 1;
+	//Longueur maximale des n-grammes indexés
+	private static final int GRAM = 3;
+	//Clés : SYMBOLS unigrammes, puis SYMBOLS² bigrammes, puis SYMBOLS³ trigrammes
+	private static final int KEYS = SYMBOLS + SYMBOLS * SYMBOLS + SYMBOLS * SYMBOLS * SYMBOLS;
+
+	//Lettres de tous les mots bout à bout : le mot i occupe letters[starts[i] .. starts[i + 1] - 1]
+	private char[] letters;
+	private int length;
+	private int[] starts;
+	private int count;
+	private final BitSet removed;
+	private int removedCount;
+	//Numéro + 1 des mots, rangés selon le hachage de leurs lettres (0 pour une case vide)
+	private int[] table;
+	//Cases occupées de la table, mots supprimés compris (ils n'en sortent qu'à la reconstruction)
+	private int tableUsed;
+
+	private final int[][] postings;
+	private final int[] sizes;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	InfixIndex() {
+		this.letters = new char[1024];
+		this.starts = new int[128];
+		this.removed = new BitSet();
+		this.table = new int[256];
+		this.postings = new int[KEYS][];
+		this.sizes = new int[KEYS];
+	}
+
+	/*
+	 * METHODS
+	 */
+
+	/**
+	 * Méthode qui ajoute un mot à l'index (le mot ne doit pas déjà s'y trouver)
+	 * @param word Le mot nettoyé
+	 */
+	void add(CharSequence word) {
+		int id = count;
+		if (length + word.length() > letters.length) {
+			letters = Arrays.copyOf(letters, Math.max(letters.length * 2, length + word.length()));
+		}
+		for (int i = 0; i < word.length(); i++) {
+			letters[length++] = word.charAt(i);
+		}
+		if (id + 2 > starts.length) {
+			starts = Arrays.copyOf(starts, starts.length * 2);
+		}
+		starts[id + 1] = length;
+		if ((tableUsed + 1) * 2 > table.length) {
+			rehash(tableCapacity(size() + 1));
+		}
+		count++;
+		place(table, id);
+		tableUsed++;
+
+		for (int n = 1; n <= GRAM; n++) {
+			for (int i = 0; i + n <= word.length(); i++) {
+				append(key(word, i, n), id);
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui retire un mot de l'index
+	 * @param word Le mot nettoyé
+	 * @return True si le mot était dans l'index sinon false
+	 */
+	boolean remove(CharSequence word) {
+		int mask = table.length - 1;
+		for (int slot = hash(word) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int id = table[slot] - 1;
+			if (!removed.get(id) && equals(id, word)) {
+				removed.set(id);
+				removedCount++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Méthode qui return les mots qui contiennent une suite de lettres, dans l'ordre de leurs numéros
+	 * @param infix La suite de lettres
+	 * @return Les mots
+	 */
+	List<String> find(CharSequence infix) {
+		List<String> result = new ArrayList<>();
+		forEachMatch(infix, id -> result.add(word(id)));
+		return result;
+	}
+
+	/**
+	 * Méthode qui return le nombre de mots de l'index
+	 * @return Le nombre de mots (sans les mots supprimés)
+	 */
+	int size() {
+		return count - removedCount;
+	}
+
+	/**
+	 * Méthode qui libère la place réservée d'avance par les tableaux (à appeler une fois l'index construit)
+	 */
+	void trim() {
+		letters = Arrays.copyOf(letters, length);
+		starts = Arrays.copyOf(starts, count + 1);
+		if (table.length > tableCapacity(size())) {
+			rehash(tableCapacity(size()));
+		}
+		for (int key = 0; key < KEYS; key++) {
+			if (postings[key] != null) {
+				postings[key] = Arrays.copyOf(postings[key], sizes[key]);
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui return une copie indépendante de l'index, sans place réservée d'avance
+	 * @return La copie
+	 */
+	InfixIndex copy() {
+		InfixIndex copy = new InfixIndex();
+		copy.letters = letters;
+		copy.length = length;
+		copy.starts = starts;
+		copy.count = count;
+		copy.removed.or(removed);
+		copy.removedCount = removedCount;
+		copy.table = table.clone();
+		copy.tableUsed = tableUsed;
+		System.arraycopy(postings, 0, copy.postings, 0, KEYS);
+		System.arraycopy(sizes, 0, copy.sizes, 0, KEYS);
+		copy.trim();
+		return copy;
+	}
+
+	/**
+	 * Méthode qui return une estimation de la place occupée par l'index sur le tas
+	 * (lettres, débuts des mots, listes de numéros, y compris la place réservée d'avance)
+	 * @return Le nombre d'octets estimé
+	 */
+	long byteSize() {
+		long bytes = TreeStats.align(TreeStats.ARRAY_HEADER + 2L * letters.length)
+				+ TreeStats.align(TreeStats.ARRAY_HEADER + 4L * starts.length)
+				+ TreeStats.align(TreeStats.ARRAY_HEADER + 4L * table.length)
+				+ TreeStats.align(TreeStats.ARRAY_HEADER + (long) removed.size() / 8)
+				+ TreeStats.align(TreeStats.ARRAY_HEADER + (long) KEYS * TreeStats.REFERENCE)
+				+ TreeStats.align(TreeStats.ARRAY_HEADER + 4L * KEYS);
+		for (int[] list : postings) {
+			if (list != null) {
+				bytes += TreeStats.align(TreeStats.ARRAY_HEADER + 4L * list.length);
+			}
+		}
+		return bytes;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui appelle une action pour chaque mot (non supprimé) qui contient une suite de lettres,
+	 * dans l'ordre des numéros
+	 * @param infix La suite de lettres
+	 * @param action Reçoit le numéro de chaque mot trouvé
+	 */
+	private void forEachMatch(CharSequence infix, IntConsumer action) {
+		if (infix.length() == 0) {
+			for (int id = removed.nextClearBit(0); id < count; id = removed.nextClearBit(id + 1)) {
+				action.accept(id);
+			}
+			return;
+		}
+
+		int n = Math.min(infix.length(), GRAM);
+		int[] keys = new int[infix.length() - n + 1];
+		int smallest = 0;
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = key(infix, i, n);
+			if (sizes[keys[i]] == 0) {
+				return;
+			}
+			if (sizes[keys[i]] < sizes[keys[smallest]]) {
+				smallest = i;
+			}
+		}
+
+		//Position atteinte dans chaque liste : les numéros sont croissants, une liste n'est jamais reparcourue
+		int[] from = new int[keys.length];
+		int[] list = postings[keys[smallest]];
+		for (int k = 0; k < sizes[keys[smallest]]; k++) {
+			int id = list[k];
+			if (removed.get(id) || !inAll(keys, from, smallest, id)) {
+				continue;
+			}
+			if ((infix.length() <= GRAM && inAlphabet(infix)) || contains(id, infix)) {
+				action.accept(id);
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui permet de savoir si un numéro se trouve dans toutes les listes (sauf celle déjà parcourue)
+	 * @param keys Les clés des listes
+	 * @param from La position atteinte dans chaque liste (avancée par la méthode)
+	 * @param skip L'index de la liste parcourue
+	 * @param id Le numéro
+	 * @return True si le numéro est dans toutes les listes sinon false
+	 */
+	private boolean inAll(int[] keys, int[] from, int skip, int id) {
+		for (int j = 0; j < keys.length; j++) {
+			if (j == skip) {
+				continue;
+			}
+			int position = Arrays.binarySearch(postings[keys[j]], from[j], sizes[keys[j]], id);
+			if (position < 0) {
+				from[j] = -position - 1;
+				return false;
+			}
+			from[j] = position;
+		}
+		return true;
+	}
+
+	/**
+	 * Méthode qui permet de savoir si un mot de l'index contient une suite de lettres
+	 * @param id Le numéro du mot
+	 * @param infix La suite de lettres
+	 * @return True si le mot contient la suite sinon false
+	 */
+	private boolean contains(int id, CharSequence infix) {
+		int last = starts[id + 1] - infix.length();
+		for (int start = starts[id]; start <= last; start++) {
+			int i = 0;
+			while (i < infix.length() && letters[start + i] == infix.charAt(i)) {
+				i++;
+			}
+			if (i == infix.length()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Méthode qui permet de savoir si un mot de l'index est égal à une suite de lettres
+	 * @param id Le numéro du mot
+	 * @param word La suite de lettres
+	 * @return True si le mot a exactement ces lettres sinon false
+	 */
+	private boolean equals(int id, CharSequence word) {
+		int start = starts[id];
+		if (starts[id + 1] - start != word.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (letters[start + i] != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Méthode qui reconstruit la table de hachage avec les mots non supprimés
+	 * @param capacity La nouvelle taille de la table (une puissance de 2)
+	 */
+	private void rehash(int capacity) {
+		int[] rehashed = new int[capacity];
+		for (int id = removed.nextClearBit(0); id < count; id = removed.nextClearBit(id + 1)) {
+			place(rehashed, id);
+		}
+		table = rehashed;
+		tableUsed = size();
+	}
+
+	/**
+	 * Méthode qui return la taille de table qui garde un nombre de mots à moitié vide au plus
+	 * @param words Le nombre de mots
+	 * @return Une puissance de 2, au moins 256
+	 */
+	private static int tableCapacity(int words) {
+		return Math.max(256, Integer.highestOneBit(Math.max(words, 1)) * 4);
+	}
+
+	private void place(int[] table, int id) {
+		int mask = table.length - 1;
+		int slot = hash(CharBuffer.wrap(letters, starts[id], starts[id + 1] - starts[id])) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = id + 1;
+	}
+
+	private static int hash(CharSequence word) {
+		int h = 0;
+		for (int i = 0; i < word.length(); i++) {
+			h = 31 * h + word.charAt(i);
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean inAlphabet(CharSequence word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (symbol(word.charAt(i)) == OTHER) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String word(int id) {
+		return new String(letters, starts[id], starts[id + 1] - starts[id]);
+	}
+
+	private void append(int key, int id) {
+		int[] list = postings[key];
+		int size = sizes[key];
+		if (list == null) {
+			list = postings[key] = new int[4];
+		} else if (list[size - 1] == id) {
+			//N-gramme déjà présent dans le mot
+			return;
+		} else if (size == list.length) {
+			list = postings[key] = Arrays.copyOf(list, size * 2);
+		}
+		list[size] = id;
+		sizes[key] = size + 1;
+	}
+
+	/**
+	 * Méthode qui return la clé d'un n-gramme
+	 * @param word Les lettres
+	 * @param from La position de la première lettre du n-gramme
+	 * @param n La longueur du n-gramme (1 à 3)
+	 * @return La clé (les lettres hors de l'alphabet de l'arbre comptent toutes comme OTHER)
+	 */
+	private static int key(CharSequence word, int from, int n) {
+		int key = 0;
+		for (int i = from; i < from + n; i++) {
+			key = key * SYMBOLS + symbol(word.charAt(i));
+		}
+		return n == 1 ? key : n == 2 ? SYMBOLS + key : SYMBOLS + SYMBOLS * SYMBOLS + key;
+	}
+
+	private static int symbol(char c) {
+		int index = TrieNode.getIndex(c);
+		return index >= 0 && index < LETTERS ? index : OTHER;
+	}
+}
@@ -5,16 +5,54 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class LexicographicTree {
+	//Nombre de lettres de l'alphabet de l'arbre (a-z, '-', ''')
+	private static final int LETTERS = TrieNode.getIndex('\'') + 1;
+	//Taille en dessous de laquelle filterPresent ne répartit plus les mots par lettre
+	private static final int SMALL_BATCH = 16;
+	
 	private int size = 0;
 	private TrieNode root;
 	
+	//Arbre compacté (null tant que pack() n'a pas été appelé)
+	private PackedTrie packed;
+	
+	//Filtre qui rejette la plupart des mots absents avant de parcourir l'arbre (null si désactivé)
+	private WordBloomFilter bloom;
+	
+	//Index des mots écrits à l'envers, pour getWordsEndingWith (null si désactivé)
+	private LexicographicTree suffixes;
+	
+	//Index des n-grammes des mots, pour getWordsContaining (null si désactivé)
+	private InfixIndex infixes;
+	
+	//True si le dictionnaire est un snapshot figé (voir freeze) : plus aucune modification n'est possible
+	private boolean frozen;
+	
+	//Durée et erreur du chargement depuis un fichier (voir stats)
+	private long loadNanos = -1;
+	private IOException loadError;
+	private int skippedLines = 0;
+	
 	//Pour la crypto
     private Map<Integer, List<String>> wordsOfLength;
     
@@ -37,6 +75,8 @@ public class LexicographicTree {
 	 */
 	public LexicographicTree(String filename) {
 		this();
+		long start = System.nanoTime();
+		IOException error = null;
 		
         try(BufferedReader lecteur = new BufferedReader(new FileReader(filename))) { 
             String mot;
@@ -46,8 +86,278 @@ public class LexicographicTree {
             }
                        
         } catch (IOException e) {
-        	
+        	error = e;
+        }
+		loaded(start, error);
+	}
+	
+	/**
+	 * Méthode qui charge un dictionnaire dont chaque ligne contient un mot, une tabulation et son poids
+	 * (sa fréquence par exemple). Une ligne sans tabulation donne un mot de poids 0,
+	 * une ligne dont le poids n'est pas un entier positif est ignorée.
+	 * @param filename Un fichier texte au format mot&lt;TAB&gt;poids
+	 * @return Le dictionnaire, utilisable par topK
+	 */
+	public static LexicographicTree loadWeighted(String filename) {
+		LexicographicTree tree = new LexicographicTree();
+		long start = System.nanoTime();
+		IOException error = null;
+		
+		try(BufferedReader lecteur = new BufferedReader(new FileReader(filename))) { 
+            String ligne;
+            
+            while ((ligne = lecteur.readLine()) != null) {
+            	int tab = ligne.indexOf('\t');
+            	if (tab < 0) {
+            		tree.insertWord(ligne);
+            		continue;
+            	}
+            	
+            	try {
+            		tree.insertWord(ligne.substring(0, tab), Integer.parseInt(ligne.substring(tab + 1).trim()));
+            	} catch (IllegalArgumentException e) {
+            		tree.skippedLines++;
+            	}
+            }
+                       
+        } catch (IOException e) {
+        	error = e;
+        }
+		
+		return tree.loaded(start, error);
+	}
+	
+	/**
+	 * Constructeur : crée un dictionnaire à partir d'un fichier, avec un filtre de Bloom devant containsWord
+	 * (voir enableBloomFilter)
+	 * @param filename Un fichier texte contenant les mots à insérer
+	 * @param falsePositiveRate Le taux de faux positifs du filtre, entre 0 et 1 (exclus)
+	 * @throws IllegalArgumentException Si le taux de faux positifs n'est pas entre 0 et 1
+	 */
+	public LexicographicTree(String filename, double falsePositiveRate) {
+		this(filename);
+		enableBloomFilter(falsePositiveRate);
+	}
+	
+	/**
+	 * Constructor : creates a lexicographic tree backed by an already packed structure.
+	 * @param packed The packed structure
+	 * @param size The number of words in the packed structure
+	 */
+	private LexicographicTree(PackedTrie packed, int size) {
+		this();
+		this.root = null;
+		this.packed = packed;
+		this.size = size;
+	}
+	
+	/**
+	 * Méthode qui crée un dictionnaire modifiable à partir d'un arbre construit par un SortedTreeBuilder
+	 * @param builder Le builder
+	 * @return Le dictionnaire
+	 */
+	private static LexicographicTree fromBuilder(SortedTreeBuilder builder) {
+		LexicographicTree tree = new LexicographicTree();
+		tree.root = builder.build();
+		tree.size = builder.size();
+		
+		return tree;
+	}
+	
+	/**
+	 * Méthode qui charge un dictionnaire en lisant directement les octets du fichier (projeté en mémoire),
+	 * dans un jeu de caractères explicite. Les lettres sont décodées et nettoyées au fil de l'eau
+	 * et insérées sans créer de String par mot : le chargement ne dépend presque plus que de la lecture du fichier.
+	 * Le résultat est le même dictionnaire qu'avec le constructeur et un FileReader dans ce jeu de caractères.
+	 * @param filename Un fichier texte contenant les mots à insérer, un par ligne
+	 * @param charset Le jeu de caractères du fichier : StandardCharsets.US_ASCII, ISO_8859_1 ou UTF_8
+	 * @return Le dictionnaire
+	 * @throws IllegalArgumentException Si le jeu de caractères n'est pas supporté
+	 */
+	public static LexicographicTree loadBytes(String filename, Charset charset) {
+		LexicographicTree tree = new LexicographicTree();
+		long start = System.nanoTime();
+		IOException error = null;
+		
+		try {
+			ByteWordLoader.load(filename, charset, tree::insertLoaded);
+		} catch (IOException e) {
+			error = e;
+		}
+		
+		return tree.loaded(start, error);
+	}
+	
+	/**
+	 * Méthode qui charge un dictionnaire directement hors du tas Java : les noeuds sont rangés dans des blocs
+	 * de mémoire directe que le ramasse-miettes ne parcourt pas, ce qui permet de charger des dictionnaires
+	 * plus gros que le tas (la limite est alors -XX:MaxDirectMemorySize).
+	 * Le dictionnaire reste modifiable et s'utilise exactement comme les autres.
+	 * @param filename Un fichier texte contenant les mots à insérer
+	 * @return Le dictionnaire hors du tas
+	 */
+	public static LexicographicTree loadOffHeap(String filename) {
+		LexicographicTree tree = new LexicographicTree(new OffHeapTrie(OffHeapTrie.DEFAULT_CHUNK_SHIFT), 0);
+		long start = System.nanoTime();
+		IOException error = null;
+		
+		try(BufferedReader lecteur = new BufferedReader(new FileReader(filename))) { 
+            String mot;
+            
+            while ((mot = lecteur.readLine()) != null) {              	
+                tree.insertWord(mot);                                                                      
+            }
+                       
+        } catch (IOException e) {
+        	error = e;
+        }
+		
+		return tree.loaded(start, error);
+	}
+	
+	/**
+	 * Méthode qui charge un dictionnaire en parallèle sur le pool fork-join commun (voir loadParallel(String, ForkJoinPool)).
+	 * @param filename Un fichier texte contenant les mots à insérer, dans le jeu de caractères de la plateforme
+	 * @return Le dictionnaire, identique à celui construit par LexicographicTree(filename)
+	 */
+	public static LexicographicTree loadParallel(String filename) {
+		return loadParallel(filename, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Méthode qui charge un dictionnaire en parallèle. Le fichier est découpé en tranches d'octets
+	 * qui sont lues en parallèle, puis un sous-arbre est construit en parallèle pour chaque première lettre.
+	 * Les sous-arbres sont enfin rattachés à la racine. Comme LexicographicTree(filename), qui lit le fichier
+	 * avec un FileReader, les octets sont décodés avec le jeu de caractères de la plateforme (Charset.defaultCharset()).
+	 * @param filename Un fichier texte contenant les mots à insérer, dans le jeu de caractères de la plateforme
+	 * @param pool Le pool fork-join à utiliser
+	 * @return Le dictionnaire, identique à celui construit par LexicographicTree(filename)
+	 */
+	public static LexicographicTree loadParallel(String filename, ForkJoinPool pool) {
+		LexicographicTree tree = new LexicographicTree();
+		long start = System.nanoTime();
+		IOException error = null;
+		
+		try {
+			tree.size = ParallelTreeLoader.load(filename, Charset.defaultCharset(), tree.root, pool);
+		} catch (IOException e) {
+			error = e;
+		}
+		
+		return tree.loaded(start, error);
+	}
+	
+	/**
+	 * Méthode qui construit un dictionnaire à partir de mots triés, beaucoup plus vite que insertWord :
+	 * chaque noeud reçoit son tableau d'enfants une seule fois, à sa taille finale.
+	 * Le dictionnaire obtenu reste modifiable.
+	 * @param sortedWords Les mots, triés par ordre alphabétique (String.compareTo ou ordre de getWords)
+	 * @param clean True si les mots sont déjà nettoyés (clearWord n'est alors pas appelé)
+	 * @return Le dictionnaire, identique à celui construit en insérant les mots un par un
+	 * @throws IllegalArgumentException Si les mots ne sont pas triés
+	 */
+	public static LexicographicTree fromSorted(Iterator<String> sortedWords, boolean clean) {
+		SortedTreeBuilder builder = new SortedTreeBuilder();
+		while (sortedWords.hasNext()) {
+			String word = sortedWords.next();
+			builder.add(clean ? word : clearWord(word));
+		}
+		
+		return fromBuilder(builder);
+	}
+	
+	/**
+	 * Méthode qui construit un dictionnaire à partir d'un stream de mots triés (voir fromSorted(Iterator, boolean))
+	 * @param sortedWords Les mots, triés par ordre alphabétique
+	 * @param clean True si les mots sont déjà nettoyés
+	 * @return Le dictionnaire
+	 * @throws IllegalArgumentException Si les mots ne sont pas triés
+	 */
+	public static LexicographicTree fromSorted(Stream<String> sortedWords, boolean clean) {
+		return fromSorted(sortedWords.iterator(), clean);
+	}
+	
+	/**
+	 * Méthode qui charge un dictionnaire à partir d'un fichier de mots triés (voir fromSorted(Iterator, boolean))
+	 * @param filename Un fichier texte contenant les mots triés par ordre alphabétique
+	 * @param clean True si les mots du fichier sont déjà nettoyés
+	 * @return Le dictionnaire
+	 * @throws IllegalArgumentException Si les mots ne sont pas triés
+	 */
+	public static LexicographicTree loadSorted(String filename, boolean clean) {
+		SortedTreeBuilder builder = new SortedTreeBuilder();
+		long start = System.nanoTime();
+		IOException error = null;
+		
+		try(BufferedReader lecteur = new BufferedReader(new FileReader(filename))) { 
+            String mot;
+            
+            while ((mot = lecteur.readLine()) != null) {              	
+                builder.add(clean ? mot : clearWord(mot));                                                                      
+            }
+                       
+        } catch (IOException e) {
+        	error = e;
+        }
+		
+		return fromBuilder(builder).loaded(start, error);
+	}
+	
+	/**
+	 * Méthode qui construit un dictionnaire minimisé (automate acyclique minimal, DAWG) à partir d'une liste de mots triés.
+	 * Les suffixes communs ne sont stockés qu'une fois, le dictionnaire obtenu est compacté et ne peut plus être modifié.
+	 * @param sortedWords Les mots, triés par ordre alphabétique (String.compareTo ou ordre de getWords)
+	 * @return Le dictionnaire minimisé
+	 * @throws IllegalArgumentException Si les mots ne sont pas triés
+	 */
+	public static LexicographicTree minimize(Iterable<String> sortedWords) {
+		Dawg.Builder builder = new Dawg.Builder();
+		for (String word : sortedWords) {
+			builder.add(clearWord(word));
+		}
+		
+		return new LexicographicTree(builder.build(), builder.size());
+	}
+	
+	/**
+	 * Méthode qui construit un dictionnaire minimisé (DAWG) à partir d'un fichier de mots triés.
+	 * Le fichier est lu ligne par ligne, l'arbre complet n'est jamais construit.
+	 * @param filename Un fichier texte contenant les mots triés par ordre alphabétique
+	 * @return Le dictionnaire minimisé
+	 * @throws IllegalArgumentException Si les mots ne sont pas triés
+	 */
+	public static LexicographicTree loadMinimized(String filename) {
+		Dawg.Builder builder = new Dawg.Builder();
+		long start = System.nanoTime();
+		IOException error = null;
+		
+		try(BufferedReader lecteur = new BufferedReader(new FileReader(filename))) { 
+            String mot;
+            
+            while ((mot = lecteur.readLine()) != null) {              	
+                builder.add(clearWord(mot));                                                                      
+            }
+                       
+        } catch (IOException e) {
+        	error = e;
         }
+		
+		return new LexicographicTree(builder.build(), builder.size()).loaded(start, error);
+	}
+	
+	/**
+	 * Méthode qui ouvre un dictionnaire sauvegardé avec saveSnapshot.
+	 * Le fichier est projeté en mémoire et les recherches lisent directement ses octets,
+	 * l'ouverture ne coûte donc presque rien quelle que soit la taille du dictionnaire.
+	 * Le dictionnaire obtenu est compacté et ne peut plus être modifié.
+	 * @param filename Le fichier snapshot
+	 * @return Le dictionnaire
+	 * @throws IOException Si le fichier ne peut pas être lu ou n'est pas un snapshot valide
+	 */
+	public static LexicographicTree openSnapshot(String filename) throws IOException {
+		long start = System.nanoTime();
+		TrieSnapshot.Mapped snapshot = TrieSnapshot.open(filename);
+		return new LexicographicTree(snapshot.dawg, snapshot.size).loaded(start, null);
 	}
 	
 	
@@ -68,29 +378,74 @@ public class LexicographicTree {
 	 * @param word A word
 	 */
 	public void insertWord(String word) {
+		checkNotFrozen();
+		if (isPacked() && !isOffHeap()) {
+			throw new UnsupportedOperationException("Impossible d'insérer un mot dans un arbre compacté");
+		}
 	
-		word = clearWord(word);
+		String cleaned = clearWord(word);
+		if (insertCleaned(cleaned)) {
+			size++;
+			addToIndexes(cleaned);
+		}
+	}
+	
+	
+	/**
+	 * Méthode qui insère un mot avec un poids (sa fréquence par exemple), utilisé par topK.
+	 * Si le mot est déjà présent, son poids est remplacé.
+	 * @param word Le mot
+	 * @param weight Le poids du mot
+	 * @throws IllegalArgumentException Si le poids est négatif
+	 */
+	public void insertWord(String word, int weight) {
+		if (weight < 0) {
+			throw new IllegalArgumentException("Le poids d'un mot ne peut pas être négatif : " + weight);
+		}
+		checkNotFrozen();
+		if (isPacked() && !isOffHeap()) {
+			throw new UnsupportedOperationException("Impossible d'insérer un mot dans un arbre compacté");
+		}
 		
-	    int wordLength = word.length();
-	    TrieNode current = root;
-	    
-	    for (int i = 0; i < wordLength; ++i) {
-	        char c = word.charAt(i);
-	        TrieNode node = current.get(c);
-
-	        if (node == null) {
-	            node = new TrieNode();
-	            current.put(c, node);
-	        }
-	        current = node;
-	    }
-
-	    if (!current.isEnd()) {
-	        current.setEnd();
-	        size++;
-	    }
+		String cleaned = clearWord(word);
+		if (insertCleaned(cleaned)) {
+			size++;
+			addToIndexes(cleaned);
+		}
+		if (isOffHeap()) {
+			((OffHeapTrie) packed).setWeight(cleaned, weight);
+		} else {
+			setWeight(root, cleaned, weight);
+		}
 	}
 	
+	/**
+	 * Méthode qui return le poids d'un mot
+	 * @param word Le mot
+	 * @return Le poids du mot (0 s'il a été inséré sans poids), -1 s'il n'est pas présent
+	 */
+	public int getWeight(String word) {
+		TrieCursor cursor = newCursor();
+		return walk(cursor, word) && cursor.isWord() ? cursor.weight() : -1;
+	}
+	
+	/**
+	 * Méthode qui return les k mots de plus grand poids qui commencent par le préfix donné (autocomplétion).
+	 * Chaque noeud connaît le plus grand poids de son sous-arbre : la recherche visite d'abord les branches
+	 * les plus lourdes et s'arrête après k mots, quel que soit le nombre de mots sous le préfix.
+	 * Les poids sont conservés par pack() mais pas par un dictionnaire minimisé (ils valent alors tous 0).
+	 * @param prefix Le préfix, chaîne vide pour tous les mots
+	 * @param k Le nombre de mots souhaités
+	 * @return Au plus k mots, par poids décroissant puis dans l'ordre de getWords à poids égal
+	 */
+	public List<String> topK(String prefix, int k) {
+		TrieCursor cursor = newCursor();
+		if (k <= 0 || !walk(cursor, prefix)) {
+			return new ArrayList<>();
+		}
+		
+		return TopKSearch.search(cursor, prefix, k);
+	}
 	
 	/**
 	 * Determines if a word is present in the lexicographic tree.
@@ -99,46 +454,748 @@ public class LexicographicTree {
 	 */
 	public boolean containsWord(String word) {
 		// TODO		
+		return containsWord((CharSequence) word);
+	}
+	
+	/**
+	 * Méthode qui permet de savoir si un mot est présent, sans créer de String (StringBuilder, CharBuffer, ...)
+	 * @param word Le mot
+	 * @return True si le mot est présent sinon false
+	 */
+	public boolean containsWord(CharSequence word) {
+		if (bloom != null && !bloom.mightContain(word)) {
+			return false;
+		}
+		if (isPacked()) {
+			int node = searchPackedPrefix(word);
+			return node >= 0 && packed.isEnd(node);
+		}
+		
 		TrieNode node = searchPrefix(word);
 	    return node != null ? node.isEnd() : false;
 	}
 	
+	/**
+	 * Méthode qui permet de savoir si les lettres buf[off .. off + len - 1] forment un mot présent, sans allocation
+	 * @param buf Le tableau de lettres
+	 * @param off L'index de la première lettre
+	 * @param len Le nombre de lettres
+	 * @return True si le mot est présent sinon false
+	 * @throws IndexOutOfBoundsException Si la plage sort du tableau
+	 */
+	public boolean containsWord(char[] buf, int off, int len) {
+		Objects.checkFromIndexSize(off, len, buf.length);
+		if (bloom != null && !bloom.mightContain(buf, off, len)) {
+			return false;
+		}
+		if (isPacked()) {
+			int node = searchPackedPrefix(buf, off, len);
+			return node >= 0 && packed.isEnd(node);
+		}
+		
+		TrieNode node = searchPrefix(buf, off, len);
+	    return node != null ? node.isEnd() : false;
+	}
+	
+	/**
+	 * Méthode qui vérifie la présence de beaucoup de mots d'un coup (mots d'un texte, candidats d'une cryptanalyse, ...).
+	 * Les mots sont répartis lettre par lettre en suivant l'arbre avec un seul curseur (tri par base, du début des mots) :
+	 * chaque préfix commun n'est parcouru qu'une fois, et un préfix absent élimine d'un coup tous les mots qui le partagent.
+	 * Les doublons ne coûtent rien. Un arbre compacté sur le tas (pack, freeze) est interrogé mot par mot.
+	 * @param words Les mots à chercher
+	 * @return Les positions (dans l'ordre de parcours de la collection) des mots présents
+	 */
+	public BitSet filterPresent(Collection<? extends CharSequence> words) {
+		CharSequence[] queries = words.toArray(new CharSequence[0]);
+		BitSet result = new BitSet(queries.length);
+		
+		if (isPacked() && !packed.isDirect()) {
+			//Tableaux compacts sur le tas : une recherche seule y est déjà moins chère que la répartition des mots
+			for (int i = 0; i < queries.length; i++) {
+				if (containsWord(queries[i])) {
+					result.set(i);
+				}
+			}
+			return result;
+		}
+		
+		int[] order = new int[queries.length];
+		int count = 0;
+		for (int i = 0; i < queries.length; i++) {
+			if (bloom == null || bloom.mightContain(queries[i])) {
+				order[count++] = i;
+			}
+		}
+		
+		filterPresent(newCursor(), queries, order, new int[count], new byte[count], 0, count, 0, result);
+		return result;
+	}
+	
+	/**
+	 * Méthode qui permet de savoir si tous les mots d'une collection sont présents (voir filterPresent)
+	 * @param words Les mots
+	 * @return True si tous les mots sont présents sinon false
+	 */
+	public boolean containsAll(Collection<? extends CharSequence> words) {
+		return filterPresent(words).cardinality() == words.size();
+	}
+	
+    /**
+     * Returns an alphabetic list of all words starting with the supplied prefix.
+     * If 'prefix' is an empty string, all words are returned.
+     * @param prefix Expected prefix
+     * @return The list of words starting with the supplied prefix
+     */
+    public List<String> getWords(String prefix) {
+    	 List<String> result = new ArrayList<>();
+    	 TrieCursor cursor = newCursor();
+    	 
+    	 StringBuilder sb = new StringBuilder(prefix);
+    	 
+	     if (walk(cursor, prefix)) {   
+	        dfs(cursor, sb, result);
+	     }
+    	    
+    	 return result;
+    }
+    
+    /**
+     * Méthode qui return les mots qui se terminent par un suffix ("tion", "ement", ...), dans l'ordre de getWords.
+     * Avec l'index des suffixes (voir enableSuffixIndex), le coût dépend du nombre de mots trouvés ;
+     * sans lui, tout le dictionnaire est parcouru.
+     * @param suffix Le suffix, chaîne vide pour tous les mots
+     * @return Les mots qui se terminent par le suffix
+     */
+    public List<String> getWordsEndingWith(String suffix) {
+    	List<String> result = wordsEndingWith(suffix);
+    	if (suffixes != null) {
+    		result.sort(TrieNode::compareTrieOrder);
+    	}
+    	return result;
+    }
+    
+    /**
+     * Méthode qui return les mots qui commencent par un préfix et se terminent par un suffix, dans l'ordre de getWords.
+     * Les deux arbres connaissent le nombre de mots de chacun de leurs sous-arbres : seul le plus petit
+     * des deux ensembles (mots du préfix, mots du suffix) est parcouru, puis filtré.
+     * @param prefix Le préfix
+     * @param suffix Le suffix
+     * @return Les mots qui commencent par le préfix et se terminent par le suffix
+     */
+    public List<String> getWords(String prefix, String suffix) {
+    	List<String> result;
+    	if (suffixes == null || countWords(prefix) <= suffixes.countWords(reverse(suffix))) {
+    		result = getWords(prefix);
+    		result.removeIf(word -> !word.endsWith(suffix));
+    	} else {
+    		result = wordsEndingWith(suffix);
+    		result.removeIf(word -> !word.startsWith(prefix));
+    		result.sort(TrieNode::compareTrieOrder);
+    	}
+    	return result;
+    }
+
+
+    /**
+     * Méthode qui return les mots qui contiennent une suite de lettres n'importe où ("ois", "tion", ...), dans l'ordre de getWords.
+     * Avec l'index des infixes (voir enableInfixIndex), seuls les mots qui contiennent tous les morceaux de 3 lettres
+     * de la suite sont examinés ; sans lui, tout le dictionnaire est parcouru.
+     * @param infix La suite de lettres, chaîne vide pour tous les mots
+     * @return Les mots qui contiennent la suite
+     */
+    public List<String> getWordsContaining(String infix) {
+    	if (infixes == null) {
+    		List<String> result = getWords("");
+    		result.removeIf(word -> !word.contains(infix));
+    		return result;
+    	}
+    	
+    	List<String> result = infixes.find(infix);
+    	result.sort(TrieNode::compareTrieOrder);
+    	return result;
+    }
+
+    /**
+     * Returns an alphabetic list of all words of a given length.
+     * If 'length' is lower than or equal to zero, an empty list is returned.
+     * @param length Expected word length
+     * @return The list of words with the given length
+     */
+    public List<String> getWordsOfLength(int length) {
+    	if(length < 1) {
+    		return new ArrayList<>();
+    	}
+    	
+        List<String> result = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        dfs(newCursor(), sb, length, result);
+        
+        return result;
+    }
+    
+    /**
+     * Méthode qui return un curseur positionné sur la racine, pour parcourir l'arbre lettre par lettre
+     * (advance / retreat) au rythme d'une recherche en profondeur.
+     * Le curseur suit l'arbre tel qu'il est au moment de l'appel : il ne voit pas un pack() ultérieur.
+     * @return Le curseur
+     */
+    public TrieCursor cursor() {
+    	return newCursor();
+    }
+    
+    /**
+     * Méthode qui return le nombre de mots qui commencent par le préfix donné, sans les énumérer.
+     * Le coût ne dépend que de la longueur du préfix.
+     * @param prefix Le préfix, chaîne vide pour tous les mots
+     * @return Le nombre de mots qui commencent par le préfix
+     */
+    public int countWords(String prefix) {
+    	TrieCursor cursor = newCursor();
+    	return walk(cursor, prefix) ? cursor.wordCount() : 0;
+    }
+    
+    /**
+     * Méthode qui return la position alphabétique d'un mot, c'est-à-dire le nombre de mots
+     * du dictionnaire qui le précèdent dans l'ordre de getWords(""). Le mot n'a pas besoin d'être présent.
+     * @param word Le mot
+     * @return Le nombre de mots strictement avant le mot (son index s'il est présent)
+     */
+    public int rank(String word) {
+    	TrieCursor cursor = newCursor();
+    	int before = 0;
+    	
+    	for (int i = 0; i < word.length(); i++) {
+    		if (cursor.isWord()) {
+    			before++;
+    		}
+    		
+    		int index = TrieNode.getIndex(word.charAt(i));
+    		for (int j = cursor.nextChild(0); j >= 0 && j < index; j = cursor.nextChild(j + 1)) {
+    			cursor.advanceIndex(j);
+    			before += cursor.wordCount();
+    			cursor.retreat();
+    		}
+    		
+    		if (!cursor.advanceIndex(index)) {
+    			return before;
+    		}
+    	}
+    	
+    	return before;
+    }
+    
+    /**
+     * Méthode qui return le mot qui se trouve à une position donnée dans l'ordre de getWords(""),
+     * sans énumérer les mots qui le précèdent.
+     * @param index La position du mot (0 pour le premier)
+     * @return Le mot à cette position
+     * @throws IndexOutOfBoundsException Si la position est négative ou supérieure ou égale à size()
+     */
+    public String select(int index) {
+    	if (index < 0 || index >= size) {
+    		throw new IndexOutOfBoundsException("Position " + index + " hors du dictionnaire (" + size + " mots)");
+    	}
+    	
+    	TrieCursor cursor = newCursor();
+    	StringBuilder sb = new StringBuilder();
+    	int remaining = index;
+    	
+    	while (true) {
+    		if (cursor.isWord()) {
+    			if (remaining == 0) {
+    				return sb.toString();
+    			}
+    			remaining--;
+    		}
+    		
+    		for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+    			cursor.advanceIndex(i);
+    			int count = cursor.wordCount();
+    			if (remaining < count) {
+    				sb.append(TrieNode.getLetter(i));
+    				break;
+    			}
+    			remaining -= count;
+    			cursor.retreat();
+    		}
+    	}
+    }
+    
+    /**
+     * Méthode qui return tous les mots qui peuvent être formés avec les lettres d'un tirage (jeux de lettres).
+     * Chaque lettre du tirage ne peut être utilisée qu'une fois, un ? est un joker qui remplace n'importe quelle lettre.
+     * L'arbre est parcouru en dépensant les lettres du tirage : une branche est abandonnée dès qu'il manque
+     * une lettre, ou dès qu'aucun mot ne se termine avec les lettres qui restent.
+     * @param rack Le tirage, par exemple "tablier" ou "ecr??" (les majuscules sont acceptées)
+     * @return La liste alphabétique des mots qui peuvent être formés (sans le mot vide)
+     * @throws IllegalArgumentException Si le tirage contient un caractère hors alphabet
+     */
+    public List<String> wordsFromLetters(String rack) {
+    	List<String> result = new ArrayList<>();
+    	int[] letters = new int[TrieNode.getIndex('\'') + 1];
+    	int blanks = countLetters(rack, letters);
+    	
+    	dfs(newCursor(), letters, blanks, rack.length(), new StringBuilder(), result);
+    	return result;
+    }
+    
+    /**
+     * Méthode qui return le nombre de mots qui peuvent être formés avec les lettres d'un tirage (voir wordsFromLetters),
+     * sans créer les mots
+     * @param rack Le tirage
+     * @return Le nombre de mots qui peuvent être formés (sans le mot vide)
+     * @throws IllegalArgumentException Si le tirage contient un caractère hors alphabet
+     */
+    public int countWordsFromLetters(String rack) {
+    	int[] letters = new int[TrieNode.getIndex('\'') + 1];
+    	int blanks = countLetters(rack, letters);
+    	
+    	return dfs(newCursor(), letters, blanks, rack.length(), null, null);
+    }
+    
+    /**
+     * Méthode qui return tous les mots rangés par taille, en un seul parcours de l'arbre.
+     * Chaque liste est dans le même ordre que getWordsOfLength.
+     * @return Les mots, classés par taille croissante (seules les tailles présentes ont une entrée)
+     */
+    public Map<Integer, List<String>> getWordsByLength() {
+    	Map<Integer, List<String>> result = new TreeMap<>();
+    	dfs(newCursor(), new StringBuilder(), result);
+    	
+    	return result;
+    }
+    
+    /**
+     * Méthode qui return les mots proches d'un mot donné (distance de Levenshtein : insertions,
+     * suppressions et remplacements de lettres). L'arbre est parcouru en calculant une ligne de la
+     * matrice de distances par lettre, et une branche est abandonnée dès que toute sa ligne dépasse maxDistance.
+     * @param word Le mot recherché (comparé tel quel, sans clearWord)
+     * @param maxDistance La distance maximale acceptée
+     * @return Les mots à distance au plus maxDistance, triés par distance croissante puis alphabétiquement
+     * @throws IllegalArgumentException Si maxDistance est négative
+     */
+    public List<String> fuzzySearch(String word, int maxDistance) {
+    	if (maxDistance < 0) {
+    		throw new IllegalArgumentException("La distance maximale ne peut pas être négative");
+    	}
+    	
+    	List<List<String>> byDistance = new ArrayList<>();
+    	for (int d = 0; d <= maxDistance; d++) {
+    		byDistance.add(new ArrayList<>());
+    	}
+    	
+    	// Ligne k : distances entre les k premières lettres du chemin et chaque préfix du mot
+    	int[][] rows = new int[word.length() + maxDistance + 2][word.length() + 1];
+    	for (int j = 0; j <= word.length(); j++) {
+    		rows[0][j] = j;
+    	}
+    	fuzzyDfs(newCursor(), word, maxDistance, rows, new StringBuilder(), byDistance);
+    	
+    	List<String> result = new ArrayList<>();
+    	for (List<String> words : byDistance) {
+    		result.addAll(words);
+    	}
+    	return result;
+    }
+    
+    /**
+     * Méthode qui return un itérateur paresseux sur les mots qui commencent par le préfix donné, dans le même ordre que getWords.
+     * Les mots sont construits au fur et à mesure : on peut s'arrêter après quelques mots sans parcourir tout l'arbre.
+     * L'arbre ne doit pas être modifié pendant l'itération.
+     * @param prefix Le préfix, chaîne vide pour tous les mots
+     * @return L'itérateur
+     */
+    public Iterator<String> iterateWords(String prefix) {
+    	return Spliterators.iterator(spliterator(prefix));
+    }
+    
+    /**
+     * Méthode qui return un Spliterator paresseux sur les mots qui commencent par le préfix donné.
+     * Il peut être découpé (trySplit) tant que le parcours n'a pas commencé, pour les streams parallèles.
+     * L'arbre ne doit pas être modifié pendant le parcours.
+     * @param prefix Le préfix, chaîne vide pour tous les mots
+     * @return Le Spliterator
+     */
+    public Spliterator<String> spliterator(String prefix) {
+    	return WordSpliterator.of(this::newCursor, prefix, -1);
+    }
+    
+    /**
+     * Méthode qui return un stream paresseux sur les mots qui commencent par le préfix donné, dans le même ordre que getWords.
+     * Le stream peut être rendu parallèle avec parallel().
+     * @param prefix Le préfix, chaîne vide pour tous les mots
+     * @return Le stream
+     */
+    public Stream<String> streamWords(String prefix) {
+    	return StreamSupport.stream(spliterator(prefix), false);
+    }
+    
+    /**
+     * Méthode qui return un stream paresseux sur les mots qui correspondent à un motif, dans le même ordre que getWords.
+     * Le motif accepte des lettres, ? (une lettre quelconque), [abc] ou [a-f] (une lettre parmi une liste)
+     * et * (une suite de lettres, éventuellement vide) : "c?a*on", "?????e", "[bc]a*".
+     * Seules les branches de l'arbre qui peuvent encore correspondre au motif sont parcourues.
+     * @param pattern Le motif
+     * @return Le stream
+     * @throws IllegalArgumentException Si le motif est mal formé
+     */
+    public Stream<String> streamWordsMatching(String pattern) {
+    	WordPattern compiled = WordPattern.compile(pattern);
+    	return StreamSupport.stream(new PatternSpliterator(newCursor(), compiled), false);
+    }
+    
+    /**
+     * Méthode qui return la liste des mots qui correspondent à un motif (voir streamWordsMatching)
+     * @param pattern Le motif
+     * @return La liste alphabétique des mots qui correspondent au motif
+     * @throws IllegalArgumentException Si le motif est mal formé
+     */
+    public List<String> getWordsMatching(String pattern) {
+    	List<String> result = new ArrayList<>();
+    	new PatternSpliterator(newCursor(), WordPattern.compile(pattern)).forEachRemaining(result::add);
+    	
+    	return result;
+    }
+    
+    /**
+     * Méthode qui return un stream paresseux sur les mots d'une certaine taille, dans le même ordre que getWordsOfLength.
+     * @param length La taille des mots souhaités, un stream vide est retourné si elle est inférieure à 1
+     * @return Le stream
+     */
+    public Stream<String> streamWordsOfLength(int length) {
+    	if (length < 1) {
+    		return Stream.empty();
+    	}
+    	
+    	return StreamSupport.stream(WordSpliterator.of(this::newCursor, "", length), false);
+    }
+    
+    /**
+     * Méthode qui supprime un mot du dictionnaire. Dans l'arbre de TrieNode, les branches devenues inutiles
+     * sont détachées et les tableaux d'enfants réduits : la mémoire reste stable même après beaucoup d'ajouts
+     * et de suppressions (hors du tas, les noeuds libérés sont réutilisés par les insertions suivantes).
+     * Dans l'arbre compacté, les cases libérées sont récupérées par compact()
+     * (appelé automatiquement quand la moitié des cases sont libres).
+     * @param word Le mot à supprimer
+     * @return True si le mot était présent sinon false
+     * @throws UnsupportedOperationException Si le dictionnaire est minimisé (ses états sont partagés entre plusieurs mots) ou figé
+     */
+    public boolean removeWord(String word) {
+    	checkNotFrozen();
+    	if (packed instanceof Dawg) {
+    		throw new UnsupportedOperationException("Impossible de supprimer un mot d'un dictionnaire minimisé");
+    	}
+    	
+    	String cleaned = clearWord(word);
+    	boolean removed;
+    	if (isOffHeap()) {
+    		removed = ((OffHeapTrie) packed).remove(cleaned);
+    	} else if (isPacked()) {
+    		DoubleArrayTrie trie = (DoubleArrayTrie) packed;
+    		removed = trie.remove(cleaned);
+    		if (trie.freeSlots() * 2 > trie.capacity()) {
+    			compact();
+    		}
+    	} else {
+    		removed = remove(root, cleaned);
+    	}
+    	
+    	if (removed) {
+    		size--;
+    		if (suffixes != null) {
+    			suffixes.removeWord(reverse(cleaned));
+    		}
+    		if (infixes != null && !infixes.remove(cleaned)) {
+    			throw new IllegalStateException("Mot absent de l'index des infixes : " + cleaned);
+    		}
+    		updateWordsOfLength(cleaned, false);
+    	}
+    	return removed;
+    }
+    
+    /**
+     * Méthode qui récupère la place libérée par les suppressions dans l'arbre compacté, en reconstruisant
+     * le double tableau à partir de lui-même. Sans effet sur un arbre de TrieNode ou hors du tas
+     * (qui se réduisent déjà à chaque suppression), sur un dictionnaire minimisé ou figé.
+     */
+    public void compact() {
+    	if (packed instanceof DoubleArrayTrie && !frozen) {
+    		packed = DoubleArrayTrie.build(new TrieCursor.OfPacked(packed));
+    	}
+    }
+    
+    /**
+     * Méthode qui construit un filtre de Bloom avec tous les mots du dictionnaire et le place devant containsWord :
+     * la plupart des mots absents sont alors rejetés en une ou deux lectures mémoire, sans parcourir l'arbre.
+     * Les mots insérés ensuite sont ajoutés au filtre. Les mots supprimés y restent, ce qui ne fait
+     * qu'augmenter un peu les faux positifs (les réponses de containsWord restent exactes).
+     * Le filtre est dimensionné pour la taille actuelle du dictionnaire : il faut le reconstruire
+     * si le dictionnaire grossit beaucoup.
+     * @param falsePositiveRate La part des mots absents qui passent quand même le filtre, entre 0 et 1 (exclus), 0.01 par exemple
+     * @throws IllegalArgumentException Si le taux de faux positifs n'est pas entre 0 et 1
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void enableBloomFilter(double falsePositiveRate) {
+    	checkNotFrozen();
+    	if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+    		throw new IllegalArgumentException("Le taux de faux positifs doit être entre 0 et 1 : " + falsePositiveRate);
+    	}
+    	
+    	WordBloomFilter filter = new WordBloomFilter(size, falsePositiveRate);
+    	addWords(newCursor(), new StringBuilder(), filter::add);
+    	bloom = filter;
+    }
+    
+    /**
+     * Méthode qui retire le filtre de Bloom placé devant containsWord
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void disableBloomFilter() {
+    	checkNotFrozen();
+    	bloom = null;
+    }
+    
+    /**
+     * Méthode qui construit l'index des suffixes : un second arbre qui contient les mots écrits à l'envers,
+     * utilisé par getWordsEndingWith et getWords(prefix, suffix). Il est ensuite tenu à jour par insertWord
+     * et removeWord, et suit le dictionnaire dans pack, moveOffHeap et freeze. Il coûte à peu près
+     * la place d'un second dictionnaire.
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void enableSuffixIndex() {
+    	checkNotFrozen();
+    	LexicographicTree index = new LexicographicTree();
+    	addWords(newCursor(), new StringBuilder(), word -> index.insertWord(reverse(word)));
+    	if (isOffHeap()) {
+    		index.moveOffHeap();
+    	} else if (isPacked()) {
+    		index.pack();
+    	}
+    	suffixes = index;
+    }
+    
+    /**
+     * Méthode qui supprime l'index des suffixes (getWordsEndingWith parcourt alors tout le dictionnaire)
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void disableSuffixIndex() {
+    	checkNotFrozen();
+    	suffixes = null;
+    }
+    
+    /**
+     * Méthode qui permet de savoir si l'index des suffixes est activé
+     * @return True si l'index des suffixes est activé sinon false
+     */
+    public boolean hasSuffixIndex() {
+    	return suffixes != null;
+    }
+    
+    /**
+     * Méthode qui construit l'index des infixes, utilisé par getWordsContaining : pour chaque morceau de 1 à 3 lettres,
+     * la liste des mots qui le contiennent. Il est ensuite tenu à jour par insertWord et removeWord et suit le dictionnaire
+     * dans freeze (la place des mots supprimés n'est récupérée qu'en le reconstruisant). Il reste sur le tas
+     * même si l'arbre est compacté ou hors du tas, et coûte à peu près les deux tiers d'un arbre de TrieNode
+     * (voir infixIndexBytes et stats pour décider de l'activer).
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void enableInfixIndex() {
+    	checkNotFrozen();
+    	InfixIndex index = new InfixIndex();
+    	addWords(newCursor(), new StringBuilder(), index::add);
+    	index.trim();
+    	infixes = index;
+    }
+    
+    /**
+     * Méthode qui supprime l'index des infixes (getWordsContaining parcourt alors tout le dictionnaire)
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void disableInfixIndex() {
+    	checkNotFrozen();
+    	infixes = null;
+    }
+    
+    /**
+     * Méthode qui permet de savoir si l'index des infixes est activé
+     * @return True si l'index des infixes est activé sinon false
+     */
+    public boolean hasInfixIndex() {
+    	return infixes != null;
+    }
+    
+    /**
+     * Méthode qui return une estimation de la place occupée en mémoire par l'index des infixes
+     * @return Le nombre d'octets estimé de l'index, 0 s'il n'est pas activé
+     */
+    public long infixIndexBytes() {
+    	return infixes == null ? 0 : infixes.byteSize();
+    }
+    
+    /**
+     * Méthode qui return la place occupée en mémoire par le filtre de Bloom
+     * @return Le nombre d'octets du filtre, 0 s'il n'est pas activé
+     */
+    public long bloomFilterBytes() {
+    	return bloom == null ? 0 : bloom.byteSize();
+    }
+    
+    /**
+     * Méthode qui permet de compacter l'arbre en double tableau (base / check).
+     * Les noeuds TrieNode sont libérés : l'arbre prend beaucoup moins de place en mémoire
+     * et les recherches sont plus rapides, mais il n'est plus possible d'y insérer des mots.
+     */
+    public void pack() {
+    	if (!isPacked()) {
+    		packed = DoubleArrayTrie.build(root);
+    		root = null;
+    	}
+    	if (suffixes != null) {
+    		suffixes.pack();
+    	}
+    }
+    
+    /**
+     * Méthode qui sauvegarde le dictionnaire dans un fichier binaire compact (automate minimal),
+     * qui pourra être rouvert presque instantanément avec openSnapshot.
+     * @param filename Le fichier de destination (écrasé s'il existe)
+     * @throws IOException Si l'écriture échoue
+     */
+    public void saveSnapshot(String filename) throws IOException {
+    	Dawg dawg;
+    	
+    	if (packed instanceof Dawg) {
+    		dawg = (Dawg) packed;
+    	} else {
+    		Dawg.Builder builder = new Dawg.Builder();
+    		addWords(newCursor(), new StringBuilder(), builder::add);
+    		dawg = builder.build();
+    	}
+    	
+    	TrieSnapshot.save(dawg, size, filename);
+    }
+    
+    /**
+     * Méthode qui permet de savoir si l'arbre a été compacté
+     * @return True si l'arbre est compacté (double tableau, dictionnaire minimisé ou arbre hors du tas) sinon false
+     */
+    public boolean isPacked() {
+    	return packed != null;
+    }
+    
+    /**
+     * Méthode qui return un snapshot figé du dictionnaire, optimisé pour la lecture : l'arbre est compacté
+     * en double tableau (recopié hors du tas si le dictionnaire y est, partagé s'il est minimisé), avec les compteurs,
+     * les poids et les masques de longueurs qui élaguent getWordsOfLength, et le filtre de Bloom est reconstruit. Le snapshot ne partage rien de modifiable avec ce dictionnaire, qui peut continuer
+     * à changer. Toute modification du snapshot lève UnsupportedOperationException : il peut donc être lu
+     * par plusieurs threads en même temps sans verrou, une fois publié (champ volatile, DictionaryHolder, ...).
+     * Seul giveCompatibleWord garde un état entre deux appels : chaque analyse doit passer par view().
+     * @return Le snapshot figé (ce dictionnaire s'il est déjà figé)
+     */
+    public LexicographicTree freeze() {
+    	if (frozen) {
+    		return this;
+    	}
+    	
+    	PackedTrie trie;
+    	if (packed instanceof Dawg) {
+    		trie = packed;
+    	} else if (isOffHeap()) {
+    		trie = OffHeapTrie.copyOf(newCursor());
+    	} else {
+    		trie = DoubleArrayTrie.build(newCursor());
+    	}
+    	
+    	LexicographicTree snapshot = new LexicographicTree(trie, size);
+    	if (bloom != null) {
+    		snapshot.enableBloomFilter(bloom.falsePositiveRate());
+    	}
+    	if (suffixes != null) {
+    		snapshot.suffixes = suffixes.freeze();
+    	}
+    	if (infixes != null) {
+    		snapshot.infixes = infixes.copy();
+    	}
+    	snapshot.loadNanos = loadNanos;
+    	snapshot.loadError = loadError;
+    	snapshot.skippedLines = skippedLines;
+    	snapshot.frozen = true;
+    	return snapshot;
+    }
+    
+    /**
+     * Méthode qui permet de savoir si le dictionnaire est un snapshot figé (voir freeze)
+     * @return True si le dictionnaire ne peut plus être modifié sinon false
+     */
+    public boolean isFrozen() {
+    	return frozen;
+    }
+    
+    /**
+     * Méthode qui return une vue d'un snapshot figé, pour un seul utilisateur : elle partage l'arbre (rien n'est copié)
+     * mais a son propre état pour giveCompatibleWord, qui retire les mots déjà proposés.
+     * @return La vue, figée elle aussi
+     * @throws IllegalStateException Si le dictionnaire n'est pas figé
+     */
+    public LexicographicTree view() {
+    	if (!frozen) {
+    		throw new IllegalStateException("Seul un dictionnaire figé peut être partagé");
+    	}
+    	
+    	LexicographicTree view = new LexicographicTree(packed, size);
+    	view.bloom = bloom;
+    	view.suffixes = suffixes;
+    	view.infixes = infixes;
+    	view.loadNanos = loadNanos;
+    	view.loadError = loadError;
+    	view.skippedLines = skippedLines;
+    	view.frozen = true;
+    	return view;
+    }
+    
+    /**
+     * Méthode qui return les statistiques du dictionnaire : nombre de noeuds, cases réservées et utilisées,
+     * estimation de la mémoire retenue, histogrammes du nombre d'enfants et de la profondeur des noeuds,
+     * durée et erreur du chargement (les constructeurs et méthodes load* n'échouent pas sur une erreur de lecture :
+     * elle est conservée ici). Le calcul parcourt tout l'arbre.
+     * @return Les statistiques
+     */
+    public TreeStats stats() {
+    	long indexBytes = bloomFilterBytes() + infixIndexBytes() + (suffixes != null ? suffixes.stats().estimatedBytes() : 0);
+    	return TreeStats.of(root, packed, newCursor(), size, indexBytes, loadNanos, loadError, skippedLines);
+    }
+    
+    /**
+     * Méthode qui déplace les noeuds de l'arbre hors du tas Java, dans des blocs de mémoire directe
+     * (voir loadOffHeap). Le dictionnaire reste modifiable (insertWord, removeWord) et garde les poids des mots.
+     * Sans effet si l'arbre est déjà hors du tas.
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    public void moveOffHeap() {
+    	checkNotFrozen();
+    	if (!isOffHeap()) {
+    		packed = OffHeapTrie.copyOf(newCursor());
+    		root = null;
+    	}
+    	if (suffixes != null) {
+    		suffixes.moveOffHeap();
+    	}
+    }
+    
     /**
-     * Returns an alphabetic list of all words starting with the supplied prefix.
-     * If 'prefix' is an empty string, all words are returned.
-     * @param prefix Expected prefix
-     * @return The list of words starting with the supplied prefix
+     * Méthode qui permet de savoir si les noeuds de l'arbre sont stockés hors du tas Java
+     * @return True si l'arbre est hors du tas sinon false
      */
-    public List<String> getWords(String prefix) {
-    	 List<String> result = new ArrayList<>();
-    	 TrieNode node = searchPrefix(prefix);
-    	 
-    	 StringBuilder sb = new StringBuilder(prefix);
-    	 
-	     if (node != null) {   
-	        dfs(node, sb, result);
-	     }
-    	    
-    	 return result;
+    public boolean isOffHeap() {
+    	return packed instanceof OffHeapTrie;
     }
-
-
+    
     /**
-     * Returns an alphabetic list of all words of a given length.
-     * If 'length' is lower than or equal to zero, an empty list is returned.
-     * @param length Expected word length
-     * @return The list of words with the given length
+     * Méthode qui return la place réservée hors du tas Java pour les noeuds de l'arbre
+     * @return Le nombre d'octets des blocs de mémoire directe, 0 si l'arbre n'est pas hors du tas
      */
-    public List<String> getWordsOfLength(int length) {
-    	if(length < 1) {
-    		return new ArrayList<>();
-    	}
-    	
-        List<String> result = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        dfs(root, sb, 0, length, result);
-        
-        return result;
+    public long offHeapBytes() {
+    	return isOffHeap() ? ((OffHeapTrie) packed).byteSize() : 0;
     }
     
 	/*
@@ -147,12 +1204,212 @@ public class LexicographicTree {
 	
 	// TODO
     
+    /**
+     * Méthode qui insère un mot déjà nettoyé, dans l'arbre de TrieNode ou hors du tas
+     * @param cleaned Le mot nettoyé
+     * @return True si le mot n'était pas encore présent sinon false
+     */
+    private boolean insertCleaned(CharSequence cleaned) {
+    	if (isOffHeap()) {
+    		return ((OffHeapTrie) packed).insert(cleaned);
+    	}
+    	return insert(root, cleaned, 0);
+    }
+    
+    /**
+     * Méthode qui empêche de modifier un snapshot figé
+     * @throws UnsupportedOperationException Si le dictionnaire est figé
+     */
+    private void checkNotFrozen() {
+    	if (frozen) {
+    		throw new UnsupportedOperationException("Impossible de modifier un dictionnaire figé");
+    	}
+    }
+    
+    /**
+     * Méthode qui return l'erreur qui a interrompu le chargement du fichier de mots
+     * @return L'erreur, null si aucune (voir stats)
+     */
+    IOException loadError() {
+    	return loadError;
+    }
+    
+    /**
+     * Méthode qui enregistre la durée et l'erreur éventuelle d'un chargement (voir stats)
+     * @param start L'instant du début du chargement (System.nanoTime)
+     * @param error L'erreur de lecture, null si aucune
+     * @return Le dictionnaire
+     */
+    private LexicographicTree loaded(long start, IOException error) {
+    	loadNanos = System.nanoTime() - start;
+    	loadError = error;
+    	return this;
+    }
+    
+    /**
+     * Méthode qui insère un mot déjà nettoyé lu par un chargeur (le mot est recopié dans l'arbre, pas conservé)
+     * @param cleaned Le mot nettoyé
+     */
+    private void insertLoaded(CharSequence cleaned) {
+    	if (insertCleaned(cleaned)) {
+    		size++;
+    		addToIndexes(cleaned);
+    	}
+    }
+    
+    /**
+     * Méthode qui ajoute un nouveau mot aux index facultatifs (filtre de Bloom, index des suffixes et des infixes)
+     * @param cleaned Le mot nettoyé
+     */
+    private void addToIndexes(CharSequence cleaned) {
+    	if (bloom != null) {
+    		bloom.add(cleaned);
+    	}
+    	if (suffixes != null) {
+    		suffixes.insertWord(reverse(cleaned));
+    	}
+    	if (infixes != null) {
+    		infixes.add(cleaned);
+    	}
+    	updateWordsOfLength(cleaned, true);
+    }
+    
+    /**
+     * Méthode qui tient à jour la liste des mots de même taille de giveCompatibleWord, si elle a déjà été construite.
+     * La liste n'est pas reconstruite : elle garde la trace des mots déjà proposés (retirés de la liste).
+     * @param cleaned Le mot nettoyé
+     * @param added True si le mot vient d'être inséré, false s'il vient d'être supprimé
+     */
+    private void updateWordsOfLength(CharSequence cleaned, boolean added) {
+    	List<String> sameLength = wordsOfLength.get(cleaned.length());
+    	if (sameLength == null) {
+    		return;
+    	}
+    	
+    	String upperCase = cleaned.toString().toUpperCase();
+    	if (!added) {
+    		sameLength.remove(upperCase);
+    		return;
+    	}
+    	// La liste reste dans l'ordre de getWordsOfLength
+    	int position = Collections.binarySearch(sameLength, upperCase,
+    			(a, b) -> TrieNode.compareTrieOrder(a.toLowerCase(), b.toLowerCase()));
+    	if (position < 0) {
+    		sameLength.add(-position - 1, upperCase);
+    	}
+    }
+    
+    /**
+     * Méthode qui return une suite de lettres écrite à l'envers
+     * @param word Les lettres
+     * @return Les lettres dans l'ordre inverse
+     */
+    private static String reverse(CharSequence word) {
+    	return new StringBuilder(word).reverse().toString();
+    }
+    
+    /**
+     * Méthode qui return les mots qui se terminent par un suffix, dans l'ordre de l'index des suffixes
+     * (ou de l'arbre si l'index n'est pas activé)
+     * @param suffix Le suffix
+     * @return Les mots, pas encore triés
+     */
+    private List<String> wordsEndingWith(String suffix) {
+    	if (suffixes == null) {
+    		List<String> result = getWords("");
+    		result.removeIf(word -> !word.endsWith(suffix));
+    		return result;
+    	}
+    	
+    	List<String> result = suffixes.getWords(reverse(suffix));
+    	result.replaceAll(LexicographicTree::reverse);
+    	return result;
+    }
+    
+	/**
+	 * Méthode qui répartit des mots qui partagent le même préfix (celui du curseur) selon leur lettre suivante,
+	 * puis descend dans l'arbre une seule fois par lettre
+	 * @param cursor Le curseur, positionné au bout du préfix commun (remis à la même place à la fin)
+	 * @param queries Les mots
+	 * @param order Les positions des mots à traiter, dans order[from .. to - 1] (réordonnées par la méthode)
+	 * @param buffer Un tableau de travail de la taille de order
+	 * @param buckets Un tableau de travail de la taille de order (case de chaque mot)
+	 * @param from Le début de la plage
+	 * @param to La fin de la plage (exclue)
+	 * @param depth La longueur du préfix commun
+	 * @param result Reçoit les positions des mots présents
+	 */
+	private static void filterPresent(TrieCursor cursor, CharSequence[] queries, int[] order, int[] buffer,
+			byte[] buckets, int from, int to, int depth, BitSet result) {
+		if (to - from <= SMALL_BATCH) {
+			//Peu de mots : les répartir coûte plus cher que de les suivre un par un depuis le préfix commun
+			for (int k = from; k < to; k++) {
+				CharSequence word = queries[order[k]];
+				int reached = depth;
+				while (reached < word.length() && cursor.advance(word.charAt(reached))) {
+					reached++;
+				}
+				if (reached == word.length() && cursor.isWord()) {
+					result.set(order[k]);
+				}
+				for (; reached > depth; reached--) {
+					cursor.retreat();
+				}
+			}
+			return;
+		}
+		
+		//Case 0 : mots qui s'arrêtent ici, case 1 + index : lettre suivante, dernière case : lettre hors de l'alphabet
+		int[] starts = new int[LETTERS + 3];
+		for (int k = from; k < to; k++) {
+			buckets[k] = (byte) bucket(queries[order[k]], depth);
+			starts[buckets[k] + 1]++;
+		}
+		starts[0] = from;
+		for (int b = 1; b < starts.length; b++) {
+			starts[b] += starts[b - 1];
+		}
+		for (int k = from; k < to; k++) {
+			buffer[starts[buckets[k]]++] = order[k];
+		}
+		System.arraycopy(buffer, from, order, from, to - from);
+		
+		//starts[b] est maintenant la fin de la case b
+		if (cursor.isWord()) {
+			for (int k = from; k < starts[0]; k++) {
+				result.set(order[k]);
+			}
+		}
+		for (int index = 0; index < LETTERS; index++) {
+			int begin = starts[index];
+			int end = starts[index + 1];
+			if (begin < end && cursor.advanceIndex(index)) {
+				filterPresent(cursor, queries, order, buffer, buckets, begin, end, depth + 1, result);
+				cursor.retreat();
+			}
+		}
+	}
+	
+	/**
+	 * Méthode qui return la case d'un mot dans filterPresent selon sa lettre à une position donnée
+	 * @param word Le mot
+	 * @param depth La position
+	 * @return 0 si le mot s'arrête avant, 1 + index de la lettre, ou LETTERS + 1 pour une lettre hors de l'alphabet
+	 */
+	private static int bucket(CharSequence word, int depth) {
+		if (depth == word.length()) {
+			return 0;
+		}
+		int index = TrieNode.getIndex(word.charAt(depth));
+		return index >= 0 && index < LETTERS ? index + 1 : LETTERS + 1;
+	}
+	
     /**
      * Return le noeud qui correspond à la dernière lettre du prefix donné, si le préfix n'est pas trouvé alors null
      * @param prefix Séquence de lettres qui représente le prefix que l'on recherche
      * @return Le noeud qui représente la dernière lettre du prefix, si préfix non trouvé alors null
      */
-    private TrieNode searchPrefix(String prefix) {
+    private TrieNode searchPrefix(CharSequence prefix) {
         TrieNode current = root;       
         int i = 0;
         
@@ -170,63 +1427,285 @@ public class LexicographicTree {
     }
     
     /**
-     * Méthode qui permet d'ajouter les différents mots à la List result à partir d'un noeud courant
-     * @param node Le noeud courant de la recherche
+     * Équivalent de searchPrefix pour les lettres buf[off .. off + len - 1]
+     * @param buf Le tableau de lettres
+     * @param off L'index de la première lettre
+     * @param len Le nombre de lettres
+     * @return Le noeud qui représente la dernière lettre du prefix, si préfix non trouvé alors null
+     */
+    private TrieNode searchPrefix(char[] buf, int off, int len) {
+    	TrieNode current = root;
+    	int end = off + len;
+    	
+    	for (int i = off; i < end && current != null; i++) {
+    		current = current.get(buf[i]);
+    	}
+    	
+    	return current;
+    }
+    
+    /**
+     * Équivalent de searchPrefix pour l'arbre compacté
+     * @param prefix Séquence de lettres qui représente le prefix que l'on recherche
+     * @return Le noeud qui représente la dernière lettre du prefix, si préfix non trouvé alors -1
+     */
+    private int searchPackedPrefix(CharSequence prefix) {
+    	int current = packed.root();
+    	int i = 0;
+    	
+    	while (i < prefix.length() && current >= 0) {
+    		current = packed.child(current, TrieNode.getIndex(prefix.charAt(i)));
+    		i++;
+    	}
+    	
+    	return current;
+    }
+    
+    /**
+     * Équivalent de searchPackedPrefix pour les lettres buf[off .. off + len - 1]
+     * @param buf Le tableau de lettres
+     * @param off L'index de la première lettre
+     * @param len Le nombre de lettres
+     * @return Le noeud qui représente la dernière lettre du prefix, si préfix non trouvé alors -1
+     */
+    private int searchPackedPrefix(char[] buf, int off, int len) {
+    	int current = packed.root();
+    	int end = off + len;
+    	
+    	for (int i = off; i < end && current >= 0; i++) {
+    		current = packed.child(current, TrieNode.getIndex(buf[i]));
+    	}
+    	
+    	return current;
+    }
+    
+    /**
+     * Méthode qui return un curseur positionné sur la racine, quelle que soit la représentation de l'arbre
+     * @return Le curseur
+     */
+    private TrieCursor newCursor() {
+    	return isPacked() ? new TrieCursor.OfPacked(packed) : new TrieCursor.OfNodes(root);
+    }
+    
+    /**
+     * Méthode qui fait avancer un curseur le long d'un préfix
+     * @param cursor Le curseur
+     * @param prefix Le préfix
+     * @return True si tout le préfix a pu être parcouru sinon false
+     */
+    private boolean walk(TrieCursor cursor, String prefix) {
+    	for (int i = 0; i < prefix.length(); i++) {
+    		if (!cursor.advance(prefix.charAt(i))) {
+    			return false;
+    		}
+    	}
+    	
+    	return true;
+    }
+    
+    /**
+     * Méthode qui permet d'ajouter les différents mots à la List result à partir de la position du curseur
+     * @param cursor Le curseur positionné sur le noeud courant de la recherche
      * @param sb La chaîne de lettres courantes
      * @param result La List de tous les mots trouvés
      */
-    private void dfs(TrieNode node, StringBuilder sb, List<String> result) {   	
-    	 if (node.isEnd()) {
+    private void dfs(TrieCursor cursor, StringBuilder sb, List<String> result) {   	
+    	 if (cursor.isWord()) {
     	        result.add(sb.toString());
     	    }
-    	    
-    	    TrieNode[] links = node.getLinks();
-    	    if (links == null) {
-    	        return;
-    	    }
 
-    	    int cpt = 0;
-    	    for (TrieNode link : links) {
-    	        if (link != null) {
-    	            sb.append((char)('a' + cpt));
-    	            dfs(link, sb, result);
-    	            sb.setLength(sb.length() - 1);
-    	        }
-    	        cpt++;
+    	    for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+    	        cursor.advanceIndex(i);
+    	        sb.append(TrieNode.getLetter(i));
+    	        dfs(cursor, sb, result);
+    	        sb.setLength(sb.length() - 1);
+    	        cursor.retreat();
     	    }
     }
     
 
     /**
-     * Méthode qui permet d'ajouter les différents mots d'une certaine taille à la List result à partir d'un noeud courant
-     * @param node Le noeud courant de la recherche
+     * Méthode qui permet de passer les différents mots, dans l'ordre de l'arbre, à un automate ou un filtre en construction
+     * sans créer de String
+     * @param cursor Le curseur positionné sur le noeud courant de la recherche
+     * @param sb La chaîne de lettres courantes
+     * @param sink Reçoit chaque mot (le StringBuilder est réutilisé ensuite)
+     */
+    private void addWords(TrieCursor cursor, StringBuilder sb, Consumer<CharSequence> sink) {
+    	if (cursor.isWord()) {
+    		sink.accept(sb);
+    	}
+    	
+    	for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+    		cursor.advanceIndex(i);
+    		sb.append(TrieNode.getLetter(i));
+    		addWords(cursor, sb, sink);
+    		sb.setLength(sb.length() - 1);
+    		cursor.retreat();
+    	}
+    }
+    
+    /**
+     * Méthode qui permet de ranger les différents mots par taille à partir de la position du curseur
+     * @param cursor Le curseur positionné sur le noeud courant de la recherche
+     * @param sb La chaîne de lettres courantes
+     * @param result Les mots trouvés, rangés par taille
+     */
+    private void dfs(TrieCursor cursor, StringBuilder sb, Map<Integer, List<String>> result) {
+    	if (cursor.isWord()) {
+    		result.computeIfAbsent(sb.length(), length -> new ArrayList<>()).add(sb.toString());
+    	}
+    	
+    	for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+    		cursor.advanceIndex(i);
+    		sb.append(TrieNode.getLetter(i));
+    		dfs(cursor, sb, result);
+    		sb.setLength(sb.length() - 1);
+    		cursor.retreat();
+    	}
+    }
+    
+    /**
+     * Méthode qui permet d'ajouter les différents mots d'une certaine taille à la List result à partir de la position du curseur
+     * @param cursor Le curseur positionné sur le noeud courant de la recherche
      * @param sb La chaîne de lettres courantes
-     * @param currentLength La taille courante 
      * @param wordsLength La taille des mots souhaités
      * @param result La List de tous les mots trouvés d'une certaine taille
      */
-    private void dfs(TrieNode node, StringBuilder sb, int currentLength, int wordsLength, List<String> result) {
-    	if (node.isEnd() && currentLength == wordsLength) {
-            result.add(sb.toString());
-            return;
-        }
-    	
-    	TrieNode[] links = node.getLinks();
-        if (currentLength >= wordsLength || links == null) {
+    private void dfs(TrieCursor cursor, StringBuilder sb, int wordsLength, List<String> result) {
+    	if (!cursor.hasWordAt(wordsLength - cursor.depth())) {
+    		return;
+    	}
+    	if (cursor.depth() == wordsLength) {
+    		if (cursor.isWord()) {
+    			result.add(sb.toString());
+    		}
             return;
         }
         
-        int cpt = 0;
-	    for (TrieNode link : links) {
-	        if (link != null) {
-            	sb.append((char)('a' + cpt));
-                dfs(link, sb, currentLength + 1, wordsLength, result);
-                sb.setLength(sb.length() - 1);
-            }
-	        cpt++;
+	    for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+	        cursor.advanceIndex(i);
+        	sb.append(TrieNode.getLetter(i));
+            dfs(cursor, sb, wordsLength, result);
+            sb.setLength(sb.length() - 1);
+            cursor.retreat();
         }       
     }
     
+    /**
+     * Méthode qui permet d'ajouter les mots qui peuvent être formés avec les lettres restantes à partir de la position du curseur
+     * @param cursor Le curseur positionné sur le noeud courant de la recherche
+     * @param letters Le nombre de lettres restantes pour chaque index de lettre
+     * @param blanks Le nombre de jokers restants
+     * @param remaining Le nombre total de lettres et jokers restants
+     * @param sb La chaîne de lettres courantes (null pour seulement compter)
+     * @param result La List des mots trouvés (null pour seulement compter)
+     * @return Le nombre de mots trouvés sous la position du curseur (le mot courant compris)
+     */
+    private int dfs(TrieCursor cursor, int[] letters, int blanks, int remaining, StringBuilder sb, List<String> result) {
+    	int found = 0;
+    	if (cursor.depth() > 0 && cursor.isWord()) {
+    		found++;
+    		if (result != null) {
+    			result.add(sb.toString());
+    		}
+    	}
+    	if (remaining == 0 || !cursor.hasWordWithin(remaining)) {
+    		return found;
+    	}
+    	
+    	for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+    		boolean useLetter = i < letters.length && letters[i] > 0;
+    		if (!useLetter && blanks == 0) {
+    			continue;
+    		}
+    		
+    		cursor.advanceIndex(i);
+    		if (sb != null) {
+    			sb.append(TrieNode.getLetter(i));
+    		}
+    		if (useLetter) {
+    			letters[i]--;
+    			found += dfs(cursor, letters, blanks, remaining - 1, sb, result);
+    			letters[i]++;
+    		} else {
+    			found += dfs(cursor, letters, blanks - 1, remaining - 1, sb, result);
+    		}
+    		if (sb != null) {
+    			sb.setLength(sb.length() - 1);
+    		}
+    		cursor.retreat();
+    	}
+    	return found;
+    }
+    
+    /**
+     * Méthode qui compte les lettres d'un tirage
+     * @param rack Le tirage
+     * @param letters Le tableau à remplir : nombre de lettres pour chaque index de lettre
+     * @return Le nombre de jokers (?) du tirage
+     * @throws IllegalArgumentException Si le tirage contient un caractère hors alphabet
+     */
+    private static int countLetters(String rack, int[] letters) {
+    	int blanks = 0;
+    	
+    	for (int i = 0; i < rack.length(); i++) {
+    		char c = rack.charAt(i);
+    		if (c == '?') {
+    			blanks++;
+    			continue;
+    		}
+    		
+    		int index = TrieNode.getIndex(Character.toLowerCase(c));
+    		if (index < 0 || index >= letters.length) {
+    			throw new IllegalArgumentException("Lettre '" + c + "' hors alphabet dans le tirage : " + rack);
+    		}
+    		letters[index]++;
+    	}
+    	return blanks;
+    }
+    
+    /**
+     * Méthode qui permet d'ajouter les mots proches du mot recherché à partir de la position du curseur
+     * @param cursor Le curseur positionné sur le noeud courant de la recherche
+     * @param word Le mot recherché
+     * @param maxDistance La distance maximale acceptée
+     * @param rows Les lignes de la matrice de distances, rows[cursor.depth()] étant celle du noeud courant
+     * @param sb La chaîne de lettres courantes
+     * @param result Les mots trouvés, rangés par distance
+     */
+    private void fuzzyDfs(TrieCursor cursor, String word, int maxDistance, int[][] rows, StringBuilder sb, List<List<String>> result) {
+    	int n = word.length();
+    	int depth = cursor.depth();
+    	int[] row = rows[depth];
+    	
+    	if (cursor.isWord() && row[n] <= maxDistance) {
+    		result.get(row[n]).add(sb.toString());
+    	}
+    	
+    	int[] next = rows[depth + 1];
+    	for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+    		char c = TrieNode.getLetter(i);
+    		next[0] = row[0] + 1;
+    		int min = next[0];
+    		
+    		for (int j = 1; j <= n; j++) {
+    			int cost = word.charAt(j - 1) == c ? 0 : 1;
+    			next[j] = Math.min(Math.min(row[j] + 1, next[j - 1] + 1), row[j - 1] + cost);
+    			min = Math.min(min, next[j]);
+    		}
+    		
+    		// Aucune suite de ce chemin ne peut redescendre sous la borne
+    		if (min <= maxDistance) {
+    			cursor.advanceIndex(i);
+    			sb.append(c);
+    			fuzzyDfs(cursor, word, maxDistance, rows, sb, result);
+    			sb.setLength(sb.length() - 1);
+    			cursor.retreat();
+    		}
+    	}
+    }
+    
     //Pour la crypto
     
     /**
@@ -259,8 +1738,12 @@ public class LexicographicTree {
      * @param word Le mot dont on souhaite retirer les caractères non autorisés
      * @return Le mot avec les caractères non autorisés retirés
      */
-	private String clearWord(String word) {
+	static String clearWord(String word) {
 		int wordLenght = word.length();
+		if (isClean(word)) {
+			return word;
+		}
+		
 		StringBuilder cleanedStrBuilder = new StringBuilder(wordLenght);
 
 		for (int i = 0; i < wordLenght; i++) {
@@ -275,6 +1758,130 @@ public class LexicographicTree {
 		return cleanedStr;
 	}
 	
+	/**
+	 * Méthode qui permet de savoir si un mot ne contient que des caractères autorisés
+	 * (dans ce cas clearWord n'a pas besoin de le reconstruire)
+	 * @param word Le mot
+	 * @return True si le mot ne contient que des caractères autorisés sinon false
+	 */
+	private static boolean isClean(String word) {
+		for (int i = 0; i < word.length(); i++) {
+		    char c = word.charAt(i);
+		    if (!Character.isLetter(c) && c != '-' && c != '\'') {
+		        return false;
+		    }
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Méthode qui insère un mot déjà nettoyé sous un noeud, à partir d'une position du mot
+	 * @param node Le noeud sous lequel on insère (la racine, ou le noeud de la lettre word[from - 1])
+	 * @param word Le mot nettoyé
+	 * @param from L'index de la première lettre à insérer
+	 * @return True si le mot n'était pas encore présent sinon false
+	 */
+	static boolean insert(TrieNode node, CharSequence word, int from) {
+	    int wordLength = word.length();
+	    TrieNode current = node;
+	    
+	    for (int i = from; i < wordLength; ++i) {
+	        char c = word.charAt(i);
+	        TrieNode child = current.get(c);
+	        current.addLength(wordLength - i);
+
+	        if (child == null) {
+	            child = new TrieNode();
+	            current.put(c, child);
+	        }
+	        current = child;
+	    }
+
+	    current.addLength(0);
+	    if (current.isEnd()) {
+	    	return false;
+	    }
+	    
+	    current.setEnd();
+	    
+	    // Nouveau mot : on met à jour les compteurs de tout le chemin
+	    current = node;
+	    current.addCount(1);
+	    for (int i = from; i < wordLength; ++i) {
+	    	current = current.get(word.charAt(i));
+	    	current.addCount(1);
+	    }
+	    return true;
+	}
+	
+	/**
+	 * Méthode qui supprime un mot déjà nettoyé sous la racine. Les branches qui ne mènent plus à aucun mot
+	 * sont détachées et les tableaux d'enfants réduits, les masques de longueurs et compteurs sont mis à jour.
+	 * @param root La racine
+	 * @param word Le mot nettoyé
+	 * @return True si le mot était présent sinon false
+	 */
+	static boolean remove(TrieNode root, String word) {
+		int wordLength = word.length();
+		TrieNode[] path = new TrieNode[wordLength + 1];
+		path[0] = root;
+		
+		for (int i = 0; i < wordLength; i++) {
+			path[i + 1] = path[i].get(word.charAt(i));
+			if (path[i + 1] == null) {
+				return false;
+			}
+		}
+		if (!path[wordLength].isEnd()) {
+			return false;
+		}
+		
+		path[wordLength].unsetEnd();
+		path[wordLength].setWeight(0);
+		for (int d = wordLength; d >= 0; d--) {
+			TrieNode node = path[d];
+			node.addCount(-1);
+			
+			if (d > 0 && node.getCount() == 0) {
+				path[d - 1].remove(word.charAt(d - 1));
+			} else {
+				node.updateFromChildren();
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Méthode qui change le poids d'un mot déjà présent sous la racine, puis met à jour
+	 * le poids maximal de tous les noeuds du chemin
+	 * @param root La racine
+	 * @param word Le mot nettoyé
+	 * @param weight Le nouveau poids
+	 * @return True si le mot est présent sinon false
+	 */
+	static boolean setWeight(TrieNode root, String word, int weight) {
+		int wordLength = word.length();
+		TrieNode[] path = new TrieNode[wordLength + 1];
+		path[0] = root;
+		
+		for (int i = 0; i < wordLength; i++) {
+			path[i + 1] = path[i].get(word.charAt(i));
+			if (path[i + 1] == null) {
+				return false;
+			}
+		}
+		if (!path[wordLength].isEnd()) {
+			return false;
+		}
+		
+		path[wordLength].setWeight(weight);
+		for (int d = wordLength; d >= 0; d--) {
+			path[d].updateFromChildren();
+		}
+		return true;
+	}
+	
 	/**
 	 * Méthode qui permet d'ajouter tous les mots d'une certaine taille à une Map
 	 * @param wordLength La taille des mots que l'on veut ajouter à la Map
@@ -298,20 +1905,37 @@ public class LexicographicTree {
      * @return True s'il existe des mots avec ce préfix sinon false
      */
     public boolean existPrefix(String prefix) {
-        TrieNode current = root;       
-        int i = 0;
-        
-        while (i < prefix.length()) {
-            TrieNode node = current.get(prefix.charAt(i));
-            if (node == null) {
-                return false;
-            }
-            
-            current = node;
-            i++;
-        }
-        
-        return true;
+    	return existPrefix((CharSequence) prefix);
+    }
+    
+    /**
+     * Méthode qui permet de savoir s'il existe des mots qui commencent par le préfix donné, sans créer de String
+     * @param prefix Le préfix (StringBuilder, CharBuffer, ...)
+     * @return True s'il existe des mots avec ce préfix sinon false
+     */
+    public boolean existPrefix(CharSequence prefix) {
+    	if (isPacked()) {
+    		return searchPackedPrefix(prefix) >= 0;
+    	}
+    	
+    	return searchPrefix(prefix) != null;
+    }
+    
+    /**
+     * Méthode qui permet de savoir s'il existe des mots qui commencent par les lettres buf[off .. off + len - 1], sans allocation
+     * @param buf Le tableau de lettres
+     * @param off L'index de la première lettre
+     * @param len Le nombre de lettres
+     * @return True s'il existe des mots avec ce préfix sinon false
+     * @throws IndexOutOfBoundsException Si la plage sort du tableau
+     */
+    public boolean existPrefix(char[] buf, int off, int len) {
+    	Objects.checkFromIndexSize(off, len, buf.length);
+    	if (isPacked()) {
+    		return searchPackedPrefix(buf, off, len) >= 0;
+    	}
+    	
+    	return searchPrefix(buf, off, len) != null;
     }
     
     //Pour la crypto
@@ -355,7 +1979,7 @@ public class LexicographicTree {
 		return word;
 	}
 	
-	private static void testDictionaryPerformance(String filename) {
+	private static void testDictionaryPerformance(String filename, boolean packed) {
 		long startTime;
 		int repeatCount = 20;
 		
@@ -365,9 +1989,13 @@ public class LexicographicTree {
 		LexicographicTree dico = null;
 		for (int i = 0; i < repeatCount; i++) {
 			dico = new LexicographicTree(filename);
+			if (packed) {
+				dico.pack();
+			}
 		}
 		System.out.println("Load time : " + (System.currentTimeMillis() - startTime) / 1000.0);
 		System.out.println("Number of words : " + dico.size());
+		System.out.println(dico.stats());
 		System.out.println();
 		
 		// Search existing words in dictionary
@@ -432,12 +2060,15 @@ public class LexicographicTree {
 		System.out.println();
 	}
 
-	private static void testDictionarySize() {
+	private static void testDictionarySize(boolean offHeap) {
 		final int MB = 1024 * 1024;
 		System.out.print(Runtime.getRuntime().totalMemory()/MB + " / ");
 		System.out.println(Runtime.getRuntime().maxMemory()/MB);
 
 		LexicographicTree dico = new LexicographicTree();
+		if (offHeap) {
+			dico.moveOffHeap();
+		}
 		long count = 0;
 		while (true) {
 			dico.insertWord(numberToWordBreadthFirst(count));
@@ -454,9 +2085,13 @@ public class LexicographicTree {
 	
 	public static void main(String[] args) {
 		// CTT : test de performance insertion/recherche
-		testDictionaryPerformance("mots/dictionnaire_FR_sans_accents.txt");
+		testDictionaryPerformance("mots/dictionnaire_FR_sans_accents.txt", false);
+		
+		// CTT : même test sur l'arbre compacté (double tableau)
+		testDictionaryPerformance("mots/dictionnaire_FR_sans_accents.txt", true);
 		
 		// CST : test de taille maximale si VM -Xms2048m -Xmx2048m
-		testDictionarySize();
+		// (true : noeuds hors du tas, la limite est alors -XX:MaxDirectMemorySize)
+		testDictionarySize(false);
 	}
 }
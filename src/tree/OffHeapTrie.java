@@ -0,0 +1,448 @@
+package tree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Arbre lexicographique modifiable dont les noeuds sont stockés hors du tas Java, dans des blocs
+ * de mémoire directe (ByteBuffer.allocateDirect) ajoutés au fur et à mesure que l'arbre grandit.
+ * Un noeud est un numéro : son enregistrement de NODE_BYTES octets se trouve dans le bloc
+ * numero >>> chunkShift, à la position (numero & (nodesPerChunk - 1)) * NODE_BYTES.
+ * Le ramasse-miettes ne voit que quelques objets ByteBuffer, quel que soit le nombre de noeuds :
+ * il ne parcourt jamais l'arbre et la taille du dictionnaire n'est plus limitée par le tas
+ * (mais par -XX:MaxDirectMemorySize, qui vaut par défaut la taille maximale du tas).
+ *
+ * Les enfants d'un noeud forment une liste chaînée triée par index de lettre (premier enfant / frère suivant) :
+ * un noeud occupe la même place quel que soit son nombre d'enfants.
+ * Les enregistrements libérés par remove sont chaînés entre eux et réutilisés par les insertions suivantes.
+ */
+final class OffHeapTrie implements PackedTrie {
+	//Enregistrement d'un noeud : premier enfant, frère suivant, index de la lettre, fin de mot,
+	//nombre de mots, masque des longueurs, poids, poids maximal
+	private static final int FIRST_CHILD = 0;
+	private static final int NEXT_SIBLING = 4;
+	private static final int LABEL = 8;
+	private static final int FLAGS = 10;
+	private static final int COUNT = 12;
+	private static final int LENGTHS = 16;
+	private static final int WEIGHT = 24;
+	private static final int MAX_WEIGHT = 28;
+	static final int NODE_BYTES = 32;
+
+	private static final int END = 1;
+	private static final int NONE = -1;
+	private static final int ROOT = 0;
+	//Blocs de 2^17 noeuds (4 Mo)
+	static final int DEFAULT_CHUNK_SHIFT = 17;
+
+	private final int chunkShift;
+	private final int chunkMask;
+	private ByteBuffer[] chunks = new ByteBuffer[8];
+	private int chunkCount = 0;
+	//Nombre d'enregistrements déjà utilisés (libres ou non)
+	private int nodeCount = 0;
+	//Enregistrements libérés, chaînés par NEXT_SIBLING
+	private int freeList = NONE;
+	private int freeNodes = 0;
+	private int alphabetSize = 0;
+
+	/**
+	 * Constructeur : crée un arbre vide (seulement la racine)
+	 * @param chunkShift Le log2 du nombre de noeuds par bloc de mémoire (entre 0 et 25)
+	 */
+	OffHeapTrie(int chunkShift) {
+		this.chunkShift = chunkShift;
+		this.chunkMask = (1 << chunkShift) - 1;
+		allocate(0);
+		alphabetSize = 0;
+	}
+
+	/**
+	 * Méthode qui copie hors du tas l'arbre parcouru par un curseur (mots, poids, compteurs et longueurs)
+	 * @param cursor Le curseur, positionné sur la racine
+	 * @return L'arbre hors du tas
+	 */
+	static OffHeapTrie copyOf(TrieCursor cursor) {
+		OffHeapTrie trie = new OffHeapTrie(DEFAULT_CHUNK_SHIFT);
+		trie.copy(cursor, ROOT);
+		return trie;
+	}
+
+	@Override
+	public int root() {
+		return ROOT;
+	}
+
+	@Override
+	public int child(int node, int index) {
+		for (int c = getInt(node, FIRST_CHILD); c != NONE; c = getInt(c, NEXT_SIBLING)) {
+			int label = label(c);
+			if (label >= index) {
+				return label == index ? c : NONE;
+			}
+		}
+		return NONE;
+	}
+
+	@Override
+	public int nextChild(int node, int fromIndex) {
+		for (int c = getInt(node, FIRST_CHILD); c != NONE; c = getInt(c, NEXT_SIBLING)) {
+			int label = label(c);
+			if (label >= fromIndex) {
+				return label;
+			}
+		}
+		return NONE;
+	}
+
+	@Override
+	public boolean isEnd(int node) {
+		return (chunk(node).getShort(offset(node) + FLAGS) & END) != 0;
+	}
+
+	@Override
+	public long lengthMask(int node) {
+		return chunk(node).getLong(offset(node) + LENGTHS);
+	}
+
+	@Override
+	public int wordCount(int node) {
+		return getInt(node, COUNT);
+	}
+
+	@Override
+	public int weight(int node) {
+		return getInt(node, WEIGHT);
+	}
+
+	@Override
+	public int maxWeight(int node) {
+		return getInt(node, MAX_WEIGHT);
+	}
+
+	@Override
+	public int alphabetSize() {
+		return alphabetSize;
+	}
+
+	/**
+	 * Méthode qui insère un mot déjà nettoyé
+	 * @param word Le mot
+	 * @return True si le mot n'était pas encore présent sinon false
+	 * @throws IllegalArgumentException Si le mot contient une lettre hors alphabet
+	 */
+	boolean insert(CharSequence word) {
+		int wordLength = word.length();
+		for (int i = 0; i < wordLength; i++) {
+			if (TrieNode.getIndex(word.charAt(i)) < 0) {
+				throw new IllegalArgumentException("Lettre '" + word.charAt(i) + "' hors alphabet dans le mot : " + word);
+			}
+		}
+
+		int current = ROOT;
+		for (int i = 0; i < wordLength; i++) {
+			orLengths(current, 1L << Math.min(wordLength - i, 63));
+			current = childOrCreate(current, TrieNode.getIndex(word.charAt(i)));
+		}
+
+		orLengths(current, 1L);
+		if (isEnd(current)) {
+			return false;
+		}
+		setFlags(current, END);
+
+		// Nouveau mot : on met à jour les compteurs de tout le chemin
+		current = ROOT;
+		addCount(current, 1);
+		for (int i = 0; i < wordLength; i++) {
+			current = child(current, TrieNode.getIndex(word.charAt(i)));
+			addCount(current, 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Méthode qui supprime un mot déjà nettoyé. Les noeuds qui ne mènent plus à aucun mot sont détachés
+	 * et leurs enregistrements réutilisés par les insertions suivantes.
+	 * @param word Le mot
+	 * @return True si le mot était présent sinon false
+	 */
+	boolean remove(CharSequence word) {
+		int[] path = path(word);
+		if (path == null) {
+			return false;
+		}
+
+		int wordLength = word.length();
+		setFlags(path[wordLength], 0);
+		setInt(path[wordLength], WEIGHT, 0);
+		for (int d = wordLength; d >= 0; d--) {
+			int node = path[d];
+			addCount(node, -1);
+
+			if (d > 0 && wordCount(node) == 0) {
+				unlink(path[d - 1], node);
+			} else {
+				updateFromChildren(node);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Méthode qui change le poids d'un mot déjà présent, puis met à jour le poids maximal de tout le chemin
+	 * @param word Le mot nettoyé
+	 * @param weight Le nouveau poids
+	 * @return True si le mot est présent sinon false
+	 */
+	boolean setWeight(CharSequence word, int weight) {
+		int[] path = path(word);
+		if (path == null) {
+			return false;
+		}
+
+		setInt(path[word.length()], WEIGHT, weight);
+		for (int d = word.length(); d >= 0; d--) {
+			updateFromChildren(path[d]);
+		}
+		return true;
+	}
+
+	@Override
+	public int nodeCount() {
+		return nodeCount - freeNodes;
+	}
+
+	/**
+	 * Méthode qui return le nombre d'enregistrements réservés dans les blocs de mémoire (utilisés ou non)
+	 * @return Le nombre d'enregistrements
+	 */
+	@Override
+	public long slotCount() {
+		return (long) chunkCount << chunkShift;
+	}
+
+	@Override
+	public long usedSlots() {
+		return nodeCount();
+	}
+
+	/**
+	 * Méthode qui return la place réservée hors du tas
+	 * @return Le nombre d'octets des blocs de mémoire directe
+	 */
+	@Override
+	public long byteSize() {
+		return slotCount() * NODE_BYTES;
+	}
+
+	@Override
+	public boolean isDirect() {
+		return true;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui return les noeuds du chemin d'un mot présent
+	 * @param word Le mot
+	 * @return Les noeuds de la racine jusqu'à la dernière lettre, null si le mot n'est pas présent
+	 */
+	private int[] path(CharSequence word) {
+		int wordLength = word.length();
+		int[] path = new int[wordLength + 1];
+		path[0] = ROOT;
+
+		for (int i = 0; i < wordLength; i++) {
+			path[i + 1] = child(path[i], TrieNode.getIndex(word.charAt(i)));
+			if (path[i + 1] == NONE) {
+				return null;
+			}
+		}
+		return isEnd(path[wordLength]) ? path : null;
+	}
+
+	/**
+	 * Méthode qui return l'enfant d'un noeud pour un index de lettre, en le créant (à sa place dans la liste triée) s'il n'existe pas
+	 * @param node Le noeud parent
+	 * @param index L'index de la lettre
+	 * @return L'enfant
+	 */
+	private int childOrCreate(int node, int index) {
+		int previous = NONE;
+		int c = getInt(node, FIRST_CHILD);
+		while (c != NONE && label(c) < index) {
+			previous = c;
+			c = getInt(c, NEXT_SIBLING);
+		}
+		if (c != NONE && label(c) == index) {
+			return c;
+		}
+
+		int child = allocate(index);
+		setInt(child, NEXT_SIBLING, c);
+		if (previous == NONE) {
+			setInt(node, FIRST_CHILD, child);
+		} else {
+			setInt(previous, NEXT_SIBLING, child);
+		}
+		return child;
+	}
+
+	/**
+	 * Méthode qui détache un enfant (sans mot dans son sous-arbre) de son parent et libère son enregistrement
+	 * @param node Le noeud parent
+	 * @param child L'enfant
+	 */
+	private void unlink(int node, int child) {
+		int next = getInt(child, NEXT_SIBLING);
+		int c = getInt(node, FIRST_CHILD);
+		if (c == child) {
+			setInt(node, FIRST_CHILD, next);
+		} else {
+			while (getInt(c, NEXT_SIBLING) != child) {
+				c = getInt(c, NEXT_SIBLING);
+			}
+			setInt(c, NEXT_SIBLING, next);
+		}
+
+		setInt(child, NEXT_SIBLING, freeList);
+		freeList = child;
+		freeNodes++;
+	}
+
+	/**
+	 * Méthode qui recalcule le masque des longueurs et le poids maximal d'un noeud à partir de son mot et de ses enfants
+	 * @param node Le noeud
+	 */
+	private void updateFromChildren(int node) {
+		boolean end = isEnd(node);
+		long mask = end ? 1L : 0L;
+		int max = end ? weight(node) : 0;
+
+		for (int c = getInt(node, FIRST_CHILD); c != NONE; c = getInt(c, NEXT_SIBLING)) {
+			mask |= TrieNode.shiftLengths(lengthMask(c), 1);
+			max = Math.max(max, maxWeight(c));
+		}
+
+		ByteBuffer chunk = chunk(node);
+		chunk.putLong(offset(node) + LENGTHS, mask);
+		chunk.putInt(offset(node) + MAX_WEIGHT, max);
+	}
+
+	/**
+	 * Méthode qui recopie le sous-arbre d'un curseur sous un noeud vide, les enfants dans l'ordre de leurs index
+	 * @param cursor Le curseur, positionné sur le sous-arbre à recopier
+	 * @param node Le noeud de destination
+	 */
+	private void copy(TrieCursor cursor, int node) {
+		boolean end = cursor.isWord();
+		long lengths = end ? 1L : 0L;
+		int count = end ? 1 : 0;
+		int max = end ? cursor.weight() : 0;
+
+		int previous = NONE;
+		for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+			int child = allocate(i);
+			if (previous == NONE) {
+				setInt(node, FIRST_CHILD, child);
+			} else {
+				setInt(previous, NEXT_SIBLING, child);
+			}
+			previous = child;
+
+			cursor.advanceIndex(i);
+			copy(cursor, child);
+			cursor.retreat();
+
+			lengths |= TrieNode.shiftLengths(lengthMask(child), 1);
+			count += wordCount(child);
+			max = Math.max(max, maxWeight(child));
+		}
+
+		ByteBuffer chunk = chunk(node);
+		int offset = offset(node);
+		chunk.putShort(offset + FLAGS, (short) (end ? END : 0));
+		chunk.putInt(offset + COUNT, count);
+		chunk.putLong(offset + LENGTHS, lengths);
+		chunk.putInt(offset + WEIGHT, end ? cursor.weight() : 0);
+		chunk.putInt(offset + MAX_WEIGHT, max);
+	}
+
+	/**
+	 * Méthode qui réserve un enregistrement vide (un enregistrement libéré, ou à la suite des autres
+	 * en ajoutant un bloc de mémoire si besoin)
+	 * @param index L'index de la lettre du noeud
+	 * @return Le numéro du noeud
+	 */
+	private int allocate(int index) {
+		int node;
+		if (freeList != NONE) {
+			node = freeList;
+			freeList = getInt(node, NEXT_SIBLING);
+			freeNodes--;
+		} else {
+			if (nodeCount == Integer.MAX_VALUE) {
+				throw new IllegalStateException("Nombre maximal de noeuds atteint");
+			}
+			node = nodeCount++;
+			if ((node >>> chunkShift) == chunkCount) {
+				if (chunkCount == chunks.length) {
+					chunks = Arrays.copyOf(chunks, chunkCount * 2);
+				}
+				chunks[chunkCount++] = ByteBuffer.allocateDirect(NODE_BYTES << chunkShift).order(ByteOrder.nativeOrder());
+			}
+		}
+
+		ByteBuffer chunk = chunk(node);
+		int offset = offset(node);
+		chunk.putInt(offset + FIRST_CHILD, NONE);
+		chunk.putInt(offset + NEXT_SIBLING, NONE);
+		chunk.putChar(offset + LABEL, (char) index);
+		chunk.putShort(offset + FLAGS, (short) 0);
+		chunk.putInt(offset + COUNT, 0);
+		chunk.putLong(offset + LENGTHS, 0L);
+		chunk.putInt(offset + WEIGHT, 0);
+		chunk.putInt(offset + MAX_WEIGHT, 0);
+
+		alphabetSize = Math.max(alphabetSize, index + 1);
+		return node;
+	}
+
+	private ByteBuffer chunk(int node) {
+		return chunks[node >>> chunkShift];
+	}
+
+	private int offset(int node) {
+		return (node & chunkMask) * NODE_BYTES;
+	}
+
+	private int label(int node) {
+		return chunk(node).getChar(offset(node) + LABEL);
+	}
+
+	private int getInt(int node, int field) {
+		return chunk(node).getInt(offset(node) + field);
+	}
+
+	private void setInt(int node, int field, int value) {
+		chunk(node).putInt(offset(node) + field, value);
+	}
+
+	private void setFlags(int node, int flags) {
+		chunk(node).putShort(offset(node) + FLAGS, (short) flags);
+	}
+
+	private void addCount(int node, int delta) {
+		setInt(node, COUNT, getInt(node, COUNT) + delta);
+	}
+
+	private void orLengths(int node, long mask) {
+		ByteBuffer chunk = chunk(node);
+		int offset = offset(node);
+		chunk.putLong(offset + LENGTHS, chunk.getLong(offset + LENGTHS) | mask);
+	}
+}
@@ -0,0 +1,178 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dictionnaire en couches : une base figée, partagée sans copie entre plusieurs overlays,
+ * plus un petit arbre de mots ajoutés et un arbre de mots retirés propres à chaque overlay.
+ * Les mots ajoutés ne sont jamais dans la base, les mots retirés sont toujours des mots de la base :
+ * la vue fusionnée (base - retraits + ajouts) se calcule donc avec les compteurs de mots des arbres,
+ * sans jamais recopier la base. La place occupée par un overlay ne dépend que de ses ajouts et retraits.
+ */
+public final class OverlayDictionary {
+	private final LexicographicTree base;
+	private final LexicographicTree added = new LexicographicTree();
+	private final LexicographicTree removed = new LexicographicTree();
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructeur : crée un overlay vide au-dessus d'une base
+	 * @param base Le dictionnaire de base. Un dictionnaire figé (voir LexicographicTree.freeze) est partagé tel quel,
+	 *        un autre est d'abord figé (et donc copié une fois)
+	 */
+	public OverlayDictionary(LexicographicTree base) {
+		this.base = base.freeze();
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Méthode qui return la base partagée
+	 * @return Le dictionnaire de base, figé
+	 */
+	public LexicographicTree base() {
+		return base;
+	}
+
+	/**
+	 * Méthode qui return le nombre de mots de la vue fusionnée
+	 * @return Le nombre de mots
+	 */
+	public int size() {
+		return base.size() - removed.size() + added.size();
+	}
+
+	/**
+	 * Méthode qui ajoute un mot à l'overlay (s'il était retiré de la base, il est simplement rétabli)
+	 * @param word Le mot
+	 */
+	public void insertWord(String word) {
+		String cleaned = LexicographicTree.clearWord(word);
+
+		if (base.containsWord(cleaned)) {
+			removed.removeWord(cleaned);
+		} else {
+			added.insertWord(cleaned);
+		}
+	}
+
+	/**
+	 * Méthode qui retire un mot de l'overlay (la base n'est pas modifiée)
+	 * @param word Le mot
+	 * @return True si le mot était présent dans la vue fusionnée sinon false
+	 */
+	public boolean removeWord(String word) {
+		String cleaned = LexicographicTree.clearWord(word);
+
+		if (added.removeWord(cleaned)) {
+			return true;
+		}
+		if (!base.containsWord(cleaned) || removed.containsWord(cleaned)) {
+			return false;
+		}
+		removed.insertWord(cleaned);
+		return true;
+	}
+
+	/**
+	 * Méthode qui permet de savoir si un mot est présent dans la vue fusionnée
+	 * @param word Le mot
+	 * @return True si le mot est présent sinon false
+	 */
+	public boolean containsWord(String word) {
+		return added.containsWord(word) || (base.containsWord(word) && !removed.containsWord(word));
+	}
+
+	/**
+	 * Méthode qui permet de savoir s'il existe des mots qui commencent par le préfix donné dans la vue fusionnée
+	 * @param prefix Le préfix
+	 * @return True s'il existe des mots avec ce préfix sinon false
+	 */
+	public boolean existPrefix(String prefix) {
+		return added.countWords(prefix) > 0 || base.countWords(prefix) > removed.countWords(prefix);
+	}
+
+	/**
+	 * Méthode qui return le nombre de mots qui commencent par le préfix donné dans la vue fusionnée
+	 * @param prefix Le préfix
+	 * @return Le nombre de mots
+	 */
+	public int countWords(String prefix) {
+		return base.countWords(prefix) - removed.countWords(prefix) + added.countWords(prefix);
+	}
+
+	/**
+	 * Méthode qui return les mots de la vue fusionnée qui commencent par le préfix donné, dans l'ordre de LexicographicTree.getWords
+	 * @param prefix Le préfix, chaîne vide pour tous les mots
+	 * @return Les mots
+	 */
+	public List<String> getWords(String prefix) {
+		List<String> result = new ArrayList<>();
+		TrieCursor cursor = cursor();
+
+		for (int i = 0; i < prefix.length(); i++) {
+			if (!cursor.advance(prefix.charAt(i))) {
+				return result;
+			}
+		}
+
+		dfs(cursor, new StringBuilder(prefix), result);
+		return result;
+	}
+
+	/**
+	 * Méthode qui return un curseur sur la racine de la vue fusionnée (voir LexicographicTree.cursor)
+	 * @return Le curseur
+	 */
+	public TrieCursor cursor() {
+		return new TrieCursor.OfOverlay(base.cursor(), added.cursor(), removed.cursor());
+	}
+
+	/**
+	 * Méthode qui return les mots ajoutés par l'overlay (absents de la base)
+	 * @return Les mots ajoutés, dans l'ordre de getWords
+	 */
+	public List<String> getAddedWords() {
+		return added.getWords("");
+	}
+
+	/**
+	 * Méthode qui return les mots de la base retirés par l'overlay
+	 * @return Les mots retirés, dans l'ordre de getWords
+	 */
+	public List<String> getRemovedWords() {
+		return removed.getWords("");
+	}
+
+	/**
+	 * Méthode qui return une estimation de la place occupée par l'overlay seul (sans la base partagée)
+	 * @return Le nombre d'octets estimé des arbres d'ajouts et de retraits
+	 */
+	public long overlayBytes() {
+		return added.stats().estimatedBytes() + removed.stats().estimatedBytes();
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private static void dfs(TrieCursor cursor, StringBuilder sb, List<String> result) {
+		if (cursor.isWord()) {
+			result.add(sb.toString());
+		}
+
+		for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+			cursor.advanceIndex(i);
+			sb.append(TrieNode.getLetter(i));
+			dfs(cursor, sb, result);
+			sb.setLength(sb.length() - 1);
+			cursor.retreat();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package tree;
+
+/**
+ * Représentation compacte d'un arbre lexicographique (en lecture seule, sauf OffHeapTrie).
+ * Les noeuds ne sont plus des objets mais des entiers, ce qui permet de stocker
+ * tout l'arbre dans quelques tableaux (ou zones mémoire) contigus.
+ */
+interface PackedTrie {
+
+	/**
+	 * Méthode qui return le noeud racine de l'arbre
+	 * @return Le numéro du noeud racine
+	 */
+	int root();
+
+	/**
+	 * Méthode qui return l'enfant d'un noeud pour un index de lettre donné
+	 * @param node Le noeud parent
+	 * @param index L'index de la lettre (voir TrieNode.getIndex)
+	 * @return Le numéro du noeud enfant, -1 s'il n'existe pas
+	 */
+	int child(int node, int index);
+
+	/**
+	 * Méthode qui return le premier index d'enfant d'un noeud supérieur ou égal à l'index donné.
+	 * Par défaut, essaie chaque index avec child : une représentation qui range les enfants d'un noeud
+	 * ensemble peut faire mieux.
+	 * @param node Le noeud parent
+	 * @param fromIndex L'index à partir duquel on cherche
+	 * @return L'index de l'enfant trouvé, -1 s'il n'y en a pas
+	 */
+	default int nextChild(int node, int fromIndex) {
+		int alphabetSize = alphabetSize();
+
+		for (int i = Math.max(fromIndex, 0); i < alphabetSize; i++) {
+			if (child(node, i) >= 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Méthode qui permet de savoir si un noeud termine un mot
+	 * @param node Le noeud
+	 * @return True si le noeud termine un mot sinon false
+	 */
+	boolean isEnd(int node);
+
+	/**
+	 * Méthode qui return les distances auxquelles des mots se terminent sous un noeud (voir TrieNode.getLengths)
+	 * @param node Le noeud
+	 * @return Le masque des distances, -1 (toutes les distances) si la représentation ne les conserve pas
+	 */
+	long lengthMask(int node);
+
+	/**
+	 * Méthode qui return le nombre de mots qui se terminent sur un noeud ou plus bas
+	 * @param node Le noeud
+	 * @return Le nombre de mots du sous-arbre
+	 */
+	int wordCount(int node);
+
+	/**
+	 * Méthode qui return le poids du mot qui se termine sur un noeud
+	 * @param node Le noeud
+	 * @return Le poids, 0 si la représentation ne conserve pas les poids
+	 */
+	int weight(int node);
+
+	/**
+	 * Méthode qui return le plus grand poids des mots qui se terminent sur un noeud ou plus bas
+	 * @param node Le noeud
+	 * @return Le poids maximal du sous-arbre, 0 si la représentation ne conserve pas les poids
+	 */
+	int maxWeight(int node);
+
+	/**
+	 * Méthode qui return le nombre d'index de lettres possibles pour un enfant
+	 * @return Un index strictement supérieur à tous les index utilisés dans l'arbre
+	 */
+	int alphabetSize();
+
+	/**
+	 * Méthode qui return le nombre de noeuds (ou d'états) de la représentation, racine comprise
+	 * @return Le nombre de noeuds
+	 */
+	int nodeCount();
+
+	/**
+	 * Méthode qui return le nombre de cases réservées pour les liens vers les enfants (voir TreeStats.slots)
+	 * @return Le nombre de cases
+	 */
+	long slotCount();
+
+	/**
+	 * Méthode qui return le nombre de cases utilisées parmi slotCount
+	 * @return Le nombre de cases utilisées
+	 */
+	long usedSlots();
+
+	/**
+	 * Méthode qui return la place occupée par la représentation
+	 * @return Le nombre d'octets de ses tableaux (ou zones mémoire)
+	 */
+	long byteSize();
+
+	/**
+	 * Méthode qui permet de savoir si les tableaux de la représentation sont hors du tas Java
+	 * @return True si la mémoire est directe ou projetée depuis un fichier sinon false
+	 */
+	boolean isDirect();
+}
@@ -0,0 +1,188 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Chargement parallèle d'un dictionnaire en deux étapes fork-join :
+ * 1. le fichier est découpé en tranches d'octets (alignées sur les fins de ligne) qui sont
+ *    décodées et nettoyées en parallèle, les mots étant rangés par première lettre ;
+ * 2. un sous-arbre est construit en parallèle pour chaque première lettre, puis rattaché à la racine.
+ */
+final class ParallelTreeLoader {
+	private static final int CHUNK_SIZE = 1 << 18;
+	private static final int LETTERS = TrieNode.getIndex('\'') + 1;
+	private static final int OTHERS = LETTERS;
+
+	private ParallelTreeLoader() {
+
+	}
+
+	/**
+	 * Méthode qui charge un fichier de mots sous une racine vide
+	 * @param filename Le fichier texte, un mot par ligne
+	 * @param charset Le jeu de caractères du fichier (compatible avec l'ASCII : les lignes sont découpées sur l'octet '\n')
+	 * @param root La racine (vide) de l'arbre à remplir
+	 * @param pool Le pool fork-join à utiliser
+	 * @return Le nombre de mots différents insérés
+	 * @throws IOException Si le fichier ne peut pas être lu
+	 */
+	static int load(String filename, Charset charset, TrieNode root, ForkJoinPool pool) throws IOException {
+		byte[] bytes = Files.readAllBytes(Paths.get(filename));
+		List<List<String>> buckets = pool.invoke(new SplitTask(bytes, charset, 0, bytes.length));
+
+		List<BuildTask> tasks = new ArrayList<>();
+		for (int i = 0; i < LETTERS; i++) {
+			if (!buckets.get(i).isEmpty()) {
+				tasks.add(new BuildTask(i, buckets.get(i)));
+			}
+		}
+		pool.invoke(new RecursiveTask<Void>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Void compute() {
+				ForkJoinTask.invokeAll(tasks);
+				return null;
+			}
+		});
+
+		int size = 0;
+		for (BuildTask task : tasks) {
+			root.put(TrieNode.getLetter(task.letter), task.subRoot);
+			root.addLengths(TrieNode.shiftLengths(task.subRoot.getLengths(), 1));
+			root.addCount(task.subRoot.getCount());
+			size += task.join();
+		}
+
+		// Mot vide et premières lettres hors alphabet : insertion classique
+		for (String word : buckets.get(OTHERS)) {
+			if (LexicographicTree.insert(root, word, 0)) {
+				size++;
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Méthode qui return l'index de la liste dans laquelle ranger un mot
+	 * @param word Le mot nettoyé
+	 * @return L'index de sa première lettre, ou OTHERS
+	 */
+	private static int bucketOf(String word) {
+		if (word.isEmpty()) {
+			return OTHERS;
+		}
+
+		int index = TrieNode.getIndex(word.charAt(0));
+		return index >= 0 && index < LETTERS ? index : OTHERS;
+	}
+
+	private static List<List<String>> emptyBuckets() {
+		List<List<String>> buckets = new ArrayList<>(OTHERS + 1);
+		for (int i = 0; i <= OTHERS; i++) {
+			buckets.add(new ArrayList<>());
+		}
+		return buckets;
+	}
+
+	/**
+	 * Découpe d'une tranche [start, end) du fichier, qui commence au début d'une ligne
+	 */
+	private static final class SplitTask extends RecursiveTask<List<List<String>>> {
+		private static final long serialVersionUID = 1L;
+		private final byte[] bytes;
+		private final Charset charset;
+		private final int start;
+		private final int end;
+
+		SplitTask(byte[] bytes, Charset charset, int start, int end) {
+			this.bytes = bytes;
+			this.charset = charset;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected List<List<String>> compute() {
+			if (end - start > CHUNK_SIZE) {
+				int middle = start + (end - start) / 2;
+				while (middle < end && bytes[middle - 1] != '\n') {
+					middle++;
+				}
+
+				if (middle < end) {
+					SplitTask left = new SplitTask(bytes, charset, start, middle);
+					SplitTask right = new SplitTask(bytes, charset, middle, end);
+					left.fork();
+					List<List<String>> buckets = right.compute();
+					List<List<String>> leftBuckets = left.join();
+
+					for (int i = 0; i <= OTHERS; i++) {
+						leftBuckets.get(i).addAll(buckets.get(i));
+					}
+					return leftBuckets;
+				}
+			}
+
+			return parse();
+		}
+
+		private List<List<String>> parse() {
+			List<List<String>> buckets = emptyBuckets();
+			int lineStart = start;
+
+			while (lineStart < end) {
+				int lineEnd = lineStart;
+				while (lineEnd < end && bytes[lineEnd] != '\n') {
+					lineEnd++;
+				}
+
+				int length = lineEnd - lineStart;
+				if (length > 0 && bytes[lineEnd - 1] == '\r') {
+					length--;
+				}
+				String word = LexicographicTree.clearWord(new String(bytes, lineStart, length, charset));
+				buckets.get(bucketOf(word)).add(word);
+
+				lineStart = lineEnd + 1;
+			}
+
+			return buckets;
+		}
+	}
+
+	/**
+	 * Construction du sous-arbre des mots qui commencent par une même lettre
+	 */
+	private static final class BuildTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+		private final int letter;
+		private final List<String> words;
+		private final TrieNode subRoot = new TrieNode();
+
+		BuildTask(int letter, List<String> words) {
+			this.letter = letter;
+			this.words = words;
+		}
+
+		@Override
+		protected Integer compute() {
+			int count = 0;
+			for (String word : words) {
+				if (LexicographicTree.insert(subRoot, word, 1)) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+}
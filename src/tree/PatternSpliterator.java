@@ -0,0 +1,113 @@
+package tree;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Parcours paresseux des mots qui correspondent à un motif (voir WordPattern), dans l'ordre de l'arbre.
+ * L'automate du motif avance en même temps que le curseur : une branche est abandonnée dès que
+ * plus aucune position du motif n'est possible, ou (motif sans *) dès qu'aucun mot ne se termine
+ * à la bonne distance. Le coût dépend donc des branches qui correspondent, pas de la taille du dictionnaire.
+ */
+final class PatternSpliterator implements Spliterator<String> {
+	private final TrieCursor cursor;
+	private final WordPattern pattern;
+	private final StringBuilder sb = new StringBuilder();
+
+	//Pour chaque niveau : l'état de l'automate et l'index du prochain enfant à visiter
+	private long[] states = new long[16];
+	private int[] next = new int[16];
+	private boolean started;
+	private boolean finished;
+
+	PatternSpliterator(TrieCursor cursor, WordPattern pattern) {
+		this.cursor = cursor;
+		this.pattern = pattern;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action) {
+		String word = nextWord();
+		if (word == null) {
+			return false;
+		}
+
+		action.accept(word);
+		return true;
+	}
+
+	@Override
+	public Spliterator<String> trySplit() {
+		return null;
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | DISTINCT | NONNULL;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui avance jusqu'au prochain mot qui correspond au motif
+	 * @return Le mot, null si le parcours est terminé
+	 */
+	private String nextWord() {
+		if (finished) {
+			return null;
+		}
+		if (!started) {
+			started = true;
+			states[0] = pattern.start();
+			if (cursor.isWord() && pattern.accepts(states[0])) {
+				return "";
+			}
+		}
+
+		while (true) {
+			int level = cursor.depth();
+			int i = pattern.remaining(states[level]) == 0 ? -1 : cursor.nextChild(next[level]);
+
+			if (i >= 0) {
+				next[level] = i + 1;
+				long state = pattern.step(states[level], i);
+				if (state == 0) {
+					continue;
+				}
+
+				cursor.advanceIndex(i);
+				int remaining = pattern.remaining(state);
+				if (remaining >= 0 && !cursor.hasWordAt(remaining)) {
+					cursor.retreat();
+					continue;
+				}
+
+				if (level + 1 == states.length) {
+					states = Arrays.copyOf(states, states.length * 2);
+					next = Arrays.copyOf(next, next.length * 2);
+				}
+				states[level + 1] = state;
+				next[level + 1] = 0;
+				sb.append(TrieNode.getLetter(i));
+
+				if (cursor.isWord() && pattern.accepts(state)) {
+					return sb.toString();
+				}
+			} else if (level == 0) {
+				finished = true;
+				return null;
+			} else {
+				cursor.retreat();
+				sb.setLength(sb.length() - 1);
+			}
+		}
+	}
+}
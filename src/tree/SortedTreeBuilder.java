@@ -0,0 +1,168 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * Construction d'un arbre de TrieNode à partir de mots triés.
+ * Seul le chemin du dernier mot ajouté est en cours de construction : dès qu'un mot s'en écarte,
+ * les noeuds abandonnés sont terminés. Leurs enfants sont alors tous connus, le tableau links
+ * est donc alloué une seule fois à sa taille finale (au lieu d'être agrandi lettre après lettre par put),
+ * et les masques de longueurs et compteurs de mots sont calculés en une fois.
+ * N'importe quel ordre lexicographique convient (String.compareTo ou ordre de getWords) :
+ * il suffit que les mots qui commencent par un même préfix soient consécutifs.
+ */
+final class SortedTreeBuilder {
+	//Pour chaque profondeur du chemin courant : les enfants déjà terminés du noeud, le plus grand index utilisé
+	//et si le noeud termine un mot
+	private TrieNode[][] children = new TrieNode[16][];
+	private int[] maxIndex = new int[16];
+	private boolean[] ends = new boolean[16];
+	//Les index des lettres du chemin courant
+	private int[] path = new int[16];
+	private int pathLength = 0;
+	private int size = 0;
+	//Racine, créée par build
+	private TrieNode root;
+
+	SortedTreeBuilder() {
+		Arrays.fill(maxIndex, -1);
+	}
+
+	/**
+	 * Méthode qui ajoute un mot, les doublons sont ignorés
+	 * @param word Le mot (déjà nettoyé)
+	 * @throws IllegalArgumentException Si le mot n'est pas trié par rapport aux mots précédents
+	 *         ou contient une lettre hors alphabet
+	 * @throws IllegalStateException Si build a déjà été appelé
+	 */
+	void add(CharSequence word) {
+		if (root != null) {
+			throw new IllegalStateException("L'arbre a déjà été construit");
+		}
+
+		int n = word.length();
+		int common = 0;
+		while (common < pathLength && common < n && path[common] == TrieNode.getIndex(word.charAt(common))) {
+			common++;
+		}
+
+		for (int d = pathLength; d > common; d--) {
+			attach(d);
+		}
+		pathLength = common;
+
+		for (int i = common; i < n; i++) {
+			int index = TrieNode.getIndex(word.charAt(i));
+			if (index < 0) {
+				throw new IllegalArgumentException("Lettre '" + word.charAt(i) + "' hors alphabet dans le mot : " + word);
+			}
+
+			TrieNode[] siblings = children[i];
+			if (siblings != null && index < siblings.length && siblings[index] != null) {
+				throw new IllegalArgumentException("Mots non triés : " + word + " arrive après un mot de préfix différent");
+			}
+
+			push(i + 1, index);
+		}
+
+		if (!ends[n]) {
+			ends[n] = true;
+			size++;
+		}
+	}
+
+	/**
+	 * Méthode qui termine tous les noeuds et return la racine
+	 * @return La racine de l'arbre
+	 */
+	TrieNode build() {
+		if (root == null) {
+			for (int d = pathLength; d > 0; d--) {
+				attach(d);
+			}
+			pathLength = 0;
+			root = finish(0);
+		}
+
+		return root;
+	}
+
+	/**
+	 * Méthode qui return le nombre de mots différents ajoutés
+	 * @return Le nombre de mots
+	 */
+	int size() {
+		return size;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui ajoute un noeud vide au bout du chemin courant
+	 * @param depth La profondeur du nouveau noeud
+	 * @param index L'index de la lettre qui y mène
+	 */
+	private void push(int depth, int index) {
+		if (depth == ends.length) {
+			int capacity = depth * 2;
+			children = Arrays.copyOf(children, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			path = Arrays.copyOf(path, capacity);
+			maxIndex = Arrays.copyOf(maxIndex, capacity);
+			Arrays.fill(maxIndex, depth, capacity, -1);
+		}
+
+		path[depth - 1] = index;
+		pathLength = depth;
+	}
+
+	/**
+	 * Méthode qui termine le noeud d'une profondeur donnée et le range parmi les enfants de son parent
+	 * @param depth La profondeur du noeud (au moins 1)
+	 */
+	private void attach(int depth) {
+		TrieNode node = finish(depth);
+		int index = path[depth - 1];
+
+		TrieNode[] siblings = children[depth - 1];
+		if (siblings == null || index >= siblings.length) {
+			siblings = Arrays.copyOf(siblings == null ? new TrieNode[0] : siblings, Math.max(index + 1, TrieNode.getIndex('\'') + 1));
+			children[depth - 1] = siblings;
+		}
+		siblings[index] = node;
+		maxIndex[depth - 1] = Math.max(maxIndex[depth - 1], index);
+	}
+
+	/**
+	 * Méthode qui crée le noeud d'une profondeur donnée avec un tableau d'enfants à sa taille finale,
+	 * puis remet cette profondeur à vide
+	 * @param depth La profondeur du noeud
+	 * @return Le noeud
+	 */
+	private TrieNode finish(int depth) {
+		boolean isEnd = ends[depth];
+		long lengths = isEnd ? 1L : 0L;
+		int count = isEnd ? 1 : 0;
+		TrieNode[] links = null;
+
+		int last = maxIndex[depth];
+		if (last >= 0) {
+			TrieNode[] siblings = children[depth];
+			links = Arrays.copyOf(siblings, last + 1);
+			Arrays.fill(siblings, 0, last + 1, null);
+
+			for (TrieNode child : links) {
+				if (child != null) {
+					lengths |= TrieNode.shiftLengths(child.getLengths(), 1);
+					count += child.getCount();
+				}
+			}
+		}
+
+		ends[depth] = false;
+		maxIndex[depth] = -1;
+		return new TrieNode(links, isEnd, lengths, count);
+	}
+}
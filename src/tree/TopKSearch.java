@@ -0,0 +1,161 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Recherche des k mots de plus grand poids sous un préfix, sans énumérer tous les mots.
+ * La recherche est "best-first" : la file de priorité contient des sous-arbres (classés par le
+ * poids maximal de leurs mots, conservé dans chaque noeud) et des mots complets (classés par leur poids).
+ * Un mot qui sort de la file a donc un poids supérieur ou égal à celui de tous les mots pas encore trouvés.
+ * Le nombre de noeuds visités dépend de k et de la longueur des mots, pas du nombre de mots sous le préfix.
+ * La file est bornée (voir Bound) : un candidat trop léger pour faire partie des k meilleurs n'y entre pas,
+ * et ceux qui y sont entrés avant que la borne ne monte sont retirés quand la file a doublé.
+ */
+final class TopKSearch {
+
+	private TopKSearch() {
+
+	}
+
+	/**
+	 * Méthode qui return les k mots de plus grand poids sous la position d'un curseur.
+	 * Le poids maximal annoncé par le curseur doit être exact (c'est le cas des arbres de LexicographicTree,
+	 * pas de la vue d'un OverlayDictionary, qui n'enlève pas les mots retirés de ce poids) : la borne s'appuie dessus.
+	 * @param start Le curseur positionné sur le préfix (il est utilisé et modifié par la recherche)
+	 * @param prefix Le préfix
+	 * @param k Le nombre de mots souhaités
+	 * @return Les mots, par poids décroissant puis dans l'ordre de getWords à poids égal
+	 */
+	static List<String> search(TrieCursor start, String prefix, int k) {
+		List<String> result = new ArrayList<>(Math.min(k, 1024));
+		PriorityQueue<Candidate> queue = new PriorityQueue<>();
+		Bound bound = new Bound(k);
+		int purgeSize = 2 * Math.min(k, 1024) + 64;
+		queue.add(new Candidate(prefix, start, start.maxWeight()));
+		bound.add(start.maxWeight());
+
+		while (!queue.isEmpty() && result.size() < k) {
+			Candidate best = queue.poll();
+			if (best.cursor == null) {
+				result.add(best.text);
+				continue;
+			}
+			if (best.weight < bound.threshold()) {
+				// Entré dans la file avant que la borne ne monte
+				continue;
+			}
+
+			// Le poids garanti par ce sous-arbre passe au premier de ses candidats qui a le même poids
+			boolean inherited = false;
+			TrieCursor cursor = best.cursor;
+			if (cursor.isWord() && cursor.weight() >= bound.threshold()) {
+				queue.add(new Candidate(best.text, null, cursor.weight()));
+				inherited = inherit(bound, best.weight, cursor.weight(), inherited);
+			}
+
+			int i = cursor.nextChild(0);
+			while (i >= 0) {
+				int next = cursor.nextChild(i + 1);
+				cursor.advanceIndex(i);
+				int maxWeight = cursor.maxWeight();
+				cursor.retreat();
+
+				if (maxWeight >= bound.threshold()) {
+					// Le dernier enfant réutilise le curseur du parent, qui n'est plus utile
+					TrieCursor child = next >= 0 ? cursor.copy() : cursor;
+					child.advanceIndex(i);
+					queue.add(new Candidate(best.text + TrieNode.getLetter(i), child, maxWeight));
+					inherited = inherit(bound, best.weight, maxWeight, inherited);
+				}
+				i = next;
+			}
+
+			if (queue.size() > purgeSize) {
+				int threshold = bound.threshold();
+				queue.removeIf(candidate -> candidate.weight < threshold);
+				purgeSize = Math.max(purgeSize, 2 * queue.size());
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui ajoute à la borne le poids garanti par un nouveau candidat, sauf s'il reprend celui de son parent
+	 * @param bound La borne
+	 * @param parentWeight Le poids maximal du parent
+	 * @param weight Le poids (maximal) du candidat
+	 * @param inherited True si un candidat a déjà repris le poids du parent
+	 * @return True si le poids du parent a été repris (par ce candidat ou un précédent)
+	 */
+	private static boolean inherit(Bound bound, int parentWeight, int weight, boolean inherited) {
+		if (!inherited && weight == parentWeight) {
+			return true;
+		}
+		bound.add(weight);
+		return inherited;
+	}
+
+	/**
+	 * Borne inférieure du poids du k-ième mot. Chaque candidat (mot ou sous-arbre) contient au moins un mot
+	 * de son poids (maximal), et les mots des candidats sont tous différents : le k-ième plus grand de ces poids
+	 * garantis ne peut pas dépasser le poids du k-ième mot cherché. Un candidat plus léger est donc abandonné,
+	 * ce qui borne la file sans attendre que k mots soient trouvés.
+	 */
+	private static final class Bound {
+		private final int k;
+		// Les k plus grands poids garantis, le plus petit en tête
+		private final PriorityQueue<Integer> weights = new PriorityQueue<>();
+
+		Bound(int k) {
+			this.k = k;
+		}
+
+		void add(int weight) {
+			if (weights.size() < k) {
+				weights.add(weight);
+			} else if (weight > weights.peek()) {
+				weights.poll();
+				weights.add(weight);
+			}
+		}
+
+		int threshold() {
+			return weights.size() < k ? Integer.MIN_VALUE : weights.peek();
+		}
+	}
+
+	/**
+	 * Élément de la file : un mot complet (cursor null) ou un sous-arbre à explorer
+	 */
+	private static final class Candidate implements Comparable<Candidate> {
+		private final String text;
+		private final TrieCursor cursor;
+		private final int weight;
+
+		Candidate(String text, TrieCursor cursor, int weight) {
+			this.text = text;
+			this.cursor = cursor;
+			this.weight = weight;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			if (weight != other.weight) {
+				return Integer.compare(other.weight, weight);
+			}
+			int order = TrieNode.compareTrieOrder(text, other.text);
+			if (order != 0) {
+				return order;
+			}
+			// Le mot lui-même passe avant les mots plus longs de son sous-arbre
+			return Boolean.compare(cursor != null, other.cursor != null);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package tree;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Photographie de la forme et de la place en mémoire d'un dictionnaire (voir LexicographicTree.stats()),
+ * pour dimensionner la JVM sans passer par un dump du tas.
+ * Les nombres de noeuds, de cases et d'octets décrivent la représentation réelle (TrieNode, double tableau,
+ * automate minimal ou arbre hors du tas) : les octets sont une estimation (références compressées, en-têtes de 12 octets).
+ * Les histogrammes décrivent l'arbre logique, identique quelle que soit la représentation
+ * (les états partagés d'un automate minimal y sont comptés une fois par chemin).
+ */
+public final class TreeStats {
+	//Estimation de la taille des objets sur une JVM 64 bits avec références compressées
+	static final int OBJECT_HEADER = 12;
+	static final int ARRAY_HEADER = 16;
+	static final int REFERENCE = 4;
+	//TrieNode : links, isEnd, lengths, count, weight, maxWeight
+	static final long TRIE_NODE_BYTES = align(OBJECT_HEADER + REFERENCE + 1 + 8 + 4 * 3);
+
+	private final int words;
+	private final long nodes;
+	private final long slots;
+	private final long usedSlots;
+	private final long estimatedBytes;
+	private final long offHeapBytes;
+	private final int[] fanOut;
+	private final int[] depths;
+	private final long loadNanos;
+	private final IOException loadError;
+	private final int skippedLines;
+
+	TreeStats(int words, long nodes, long slots, long usedSlots, long estimatedBytes, long offHeapBytes,
+			int[] fanOut, int[] depths, long loadNanos, IOException loadError, int skippedLines) {
+		this.words = words;
+		this.nodes = nodes;
+		this.slots = slots;
+		this.usedSlots = usedSlots;
+		this.estimatedBytes = estimatedBytes;
+		this.offHeapBytes = offHeapBytes;
+		this.fanOut = fanOut;
+		this.depths = depths;
+		this.loadNanos = loadNanos;
+		this.loadError = loadError;
+		this.skippedLines = skippedLines;
+	}
+
+	/**
+	 * Méthode qui return le nombre de mots du dictionnaire
+	 * @return Le nombre de mots
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * Méthode qui return le nombre de noeuds (ou d'états pour un automate minimal), racine comprise
+	 * @return Le nombre de noeuds
+	 */
+	public long nodes() {
+		return nodes;
+	}
+
+	/**
+	 * Méthode qui return le nombre de cases réservées pour les liens vers les enfants :
+	 * cases des tableaux links (TrieNode), cases base / check (double tableau), transitions (automate)
+	 * ou enregistrements réservés (hors du tas)
+	 * @return Le nombre de cases
+	 */
+	public long slots() {
+		return slots;
+	}
+
+	/**
+	 * Méthode qui return le nombre de cases réellement utilisées parmi slots()
+	 * @return Le nombre de cases utilisées
+	 */
+	public long usedSlots() {
+		return usedSlots;
+	}
+
+	/**
+	 * Méthode qui return une estimation de la mémoire retenue par le dictionnaire
+	 * (noeuds, tableaux, filtre de Bloom et mémoire hors du tas)
+	 * @return Le nombre d'octets estimé
+	 */
+	public long estimatedBytes() {
+		return estimatedBytes;
+	}
+
+	/**
+	 * Méthode qui return la part de estimatedBytes() qui se trouve hors du tas Java
+	 * (arbre hors du tas, snapshot projeté en mémoire)
+	 * @return Le nombre d'octets hors du tas
+	 */
+	public long offHeapBytes() {
+		return offHeapBytes;
+	}
+
+	/**
+	 * Méthode qui return l'histogramme du nombre d'enfants des noeuds
+	 * @return Case k : le nombre de noeuds qui ont k enfants
+	 */
+	public int[] fanOutHistogram() {
+		return fanOut.clone();
+	}
+
+	/**
+	 * Méthode qui return l'histogramme de la profondeur des noeuds
+	 * @return Case k : le nombre de noeuds à k lettres de la racine
+	 */
+	public int[] depthHistogram() {
+		return depths.clone();
+	}
+
+	/**
+	 * Méthode qui return la durée du chargement du fichier de mots
+	 * @return La durée en nanosecondes, -1 si le dictionnaire n'a pas été chargé depuis un fichier
+	 */
+	public long loadNanos() {
+		return loadNanos;
+	}
+
+	/**
+	 * Méthode qui return l'erreur qui a interrompu le chargement du fichier de mots
+	 * (le dictionnaire ne contient alors que les mots lus avant l'erreur)
+	 * @return L'erreur, null si le chargement s'est bien passé
+	 */
+	public IOException loadError() {
+		return loadError;
+	}
+
+	/**
+	 * Méthode qui return le nombre de lignes du fichier ignorées au chargement (poids invalide, voir loadWeighted)
+	 * @return Le nombre de lignes ignorées
+	 */
+	public int skippedLines() {
+		return skippedLines;
+	}
+
+	@Override
+	public String toString() {
+		return "mots : " + words + ", noeuds : " + nodes + ", cases : " + usedSlots + " / " + slots
+				+ ", octets : " + estimatedBytes + " (hors du tas : " + offHeapBytes + ")"
+				+ ", enfants : " + Arrays.toString(fanOut) + ", profondeurs : " + Arrays.toString(depths)
+				+ (loadNanos >= 0 ? ", chargement : " + loadNanos / 1000000 + " ms" : "")
+				+ (loadError != null ? ", erreur : " + loadError : "")
+				+ (skippedLines > 0 ? ", lignes ignorées : " + skippedLines : "");
+	}
+
+	/**
+	 * Méthode qui calcule les statistiques d'un dictionnaire
+	 * @param root La racine de l'arbre de TrieNode (null si l'arbre est compacté)
+	 * @param packed L'arbre compacté (null sinon)
+	 * @param cursor Un curseur positionné sur la racine (pour les histogrammes)
+	 * @param words Le nombre de mots
+	 * @param extraBytes Les octets retenus en plus de l'arbre (filtre de Bloom, ...)
+	 * @param loadNanos La durée du chargement, -1 si aucun
+	 * @param loadError L'erreur du chargement, null si aucune
+	 * @param skippedLines Le nombre de lignes ignorées au chargement
+	 * @return Les statistiques
+	 */
+	static TreeStats of(TrieNode root, PackedTrie packed, TrieCursor cursor, int words, long extraBytes,
+			long loadNanos, IOException loadError, int skippedLines) {
+		long[] totals = new long[4];
+		long offHeapBytes = 0;
+		if (packed == null) {
+			addNodes(root, totals);
+		} else {
+			totals[0] = packed.nodeCount();
+			totals[1] = packed.slotCount();
+			totals[2] = packed.usedSlots();
+			totals[3] = packed.byteSize();
+			offHeapBytes = packed.isDirect() ? totals[3] : 0;
+		}
+
+		int[][] histograms = {new int[1], new int[1]};
+		addShape(cursor, histograms);
+
+		return new TreeStats(words, totals[0], totals[1], totals[2], totals[3] + extraBytes, offHeapBytes,
+				histograms[0], histograms[1], loadNanos, loadError, skippedLines);
+	}
+
+	/**
+	 * Méthode qui arrondit une taille d'objet au multiple de 8 octets supérieur
+	 * @param bytes La taille
+	 * @return La taille arrondie
+	 */
+	static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui compte les noeuds, les cases et les octets d'un sous-arbre de TrieNode
+	 * @param node La racine du sous-arbre
+	 * @param totals Noeuds, cases, cases utilisées, octets (complétés par la méthode)
+	 */
+	private static void addNodes(TrieNode node, long[] totals) {
+		totals[0]++;
+		totals[3] += TRIE_NODE_BYTES;
+
+		TrieNode[] links = node.getLinks();
+		if (links == null) {
+			return;
+		}
+
+		totals[1] += links.length;
+		totals[3] += align(ARRAY_HEADER + (long) links.length * REFERENCE);
+		for (TrieNode child : links) {
+			if (child != null) {
+				totals[2]++;
+				addNodes(child, totals);
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui ajoute aux histogrammes le noeud courant du curseur et tout son sous-arbre
+	 * @param cursor Le curseur
+	 * @param histograms Nombre d'enfants, profondeur (agrandis si besoin)
+	 */
+	private static void addShape(TrieCursor cursor, int[][] histograms) {
+		int children = 0;
+		for (int i = cursor.nextChild(0); i >= 0; i = cursor.nextChild(i + 1)) {
+			children++;
+			cursor.advanceIndex(i);
+			addShape(cursor, histograms);
+			cursor.retreat();
+		}
+
+		histograms[0] = increment(histograms[0], children);
+		histograms[1] = increment(histograms[1], cursor.depth());
+	}
+
+	private static int[] increment(int[] histogram, int k) {
+		if (k >= histogram.length) {
+			histogram = Arrays.copyOf(histogram, k + 1);
+		}
+		histogram[k]++;
+		return histogram;
+	}
+}
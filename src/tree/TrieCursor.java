@@ -0,0 +1,475 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * Curseur qui se déplace lettre par lettre dans un arbre lexicographique.
+ * Il permet d'écrire les parcours (dfs, ...) une seule fois, quelle que soit
+ * la représentation de l'arbre (noeuds TrieNode ou arbre compacté).
+ * Obtenu par LexicographicTree.cursor(), il permet aussi à une recherche en profondeur
+ * (Boggle, ...) d'avancer dans l'arbre au même rythme qu'elle : chaque lettre coûte O(1)
+ * au lieu de reparcourir tout le préfix depuis la racine.
+ */
+public abstract class TrieCursor {
+	protected int depth = 0;
+
+	TrieCursor() {
+
+	}
+
+	/**
+	 * Méthode qui permet de savoir si la position courante termine un mot
+	 * @return True si les lettres parcourues depuis la racine forment un mot sinon false
+	 */
+	public abstract boolean isWord();
+
+	/**
+	 * Méthode qui permet de remonter d'un niveau (annule le dernier advance réussi)
+	 * @throws IllegalStateException Si le curseur est sur la racine
+	 */
+	public abstract void retreat();
+
+	/**
+	 * Méthode qui return une copie indépendante du curseur, positionnée au même endroit
+	 * @return La copie
+	 */
+	public abstract TrieCursor copy();
+
+	/**
+	 * Méthode qui return le premier index d'enfant supérieur ou égal à l'index donné
+	 * @param fromIndex L'index à partir duquel on cherche
+	 * @return L'index de l'enfant trouvé, -1 s'il n'y en a pas
+	 */
+	abstract int nextChild(int fromIndex);
+
+	/**
+	 * Méthode qui permet de descendre vers l'enfant d'index donné
+	 * @param index L'index de la lettre
+	 * @return True si l'enfant existe (le curseur a bougé) sinon false
+	 */
+	abstract boolean advanceIndex(int index);
+
+	/**
+	 * Méthode qui permet de savoir si un mot se termine à une certaine distance sous la position courante.
+	 * Sert à élaguer les sous-arbres qui ne contiennent aucun mot de la taille recherchée.
+	 * @param distance Le nombre de lettres entre la position courante et la fin du mot
+	 * @return False si aucun mot ne se termine à cette distance, true sinon (ou si l'arbre ne le sait pas)
+	 */
+	abstract boolean hasWordAt(int distance);
+
+	/**
+	 * Méthode qui permet de savoir si un mot se termine au plus à une certaine distance sous la position courante
+	 * @param maxDistance Le nombre maximal de lettres entre la position courante et la fin du mot
+	 * @return False si aucun mot ne se termine assez près, true sinon (ou si l'arbre ne le sait pas)
+	 */
+	abstract boolean hasWordWithin(int maxDistance);
+
+	/**
+	 * Méthode qui return les distances auxquelles des mots se terminent sous la position courante (voir TrieNode.getLengths)
+	 * @return Le masque des distances, -1 (toutes les distances) si l'arbre ne les conserve pas
+	 */
+	abstract long lengthMask();
+
+	/**
+	 * Méthode qui return le nombre de mots qui se terminent sur la position courante ou plus bas
+	 * @return Le nombre de mots du sous-arbre courant
+	 */
+	abstract int wordCount();
+
+	/**
+	 * Méthode qui return le poids du mot qui se termine sur la position courante
+	 * @return Le poids du mot (0 par défaut)
+	 */
+	abstract int weight();
+
+	/**
+	 * Méthode qui return le plus grand poids des mots qui se terminent sur la position courante ou plus bas
+	 * @return Le poids maximal du sous-arbre courant
+	 */
+	abstract int maxWeight();
+
+	/**
+	 * Méthode qui permet de descendre vers l'enfant qui correspond à la lettre donnée
+	 * @param c La lettre
+	 * @return True si l'enfant existe (le curseur a bougé) sinon false (le curseur ne bouge pas)
+	 */
+	public boolean advance(char c) {
+		return advanceIndex(TrieNode.getIndex(c));
+	}
+
+	/**
+	 * Méthode qui permet de savoir si des mots continuent après la position courante
+	 * @return True si la position courante a au moins un enfant sinon false
+	 */
+	public boolean hasChildren() {
+		return nextChild(0) >= 0;
+	}
+
+	/**
+	 * Méthode qui return le nombre de lettres entre la racine et la position courante
+	 * @return La profondeur courante
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * Méthode qui marque la position courante, pour pouvoir y revenir avec reset
+	 * @return La marque (la profondeur courante)
+	 */
+	public int mark() {
+		return depth;
+	}
+
+	/**
+	 * Méthode qui remonte jusqu'à une position marquée sur le chemin courant
+	 * @param mark Une marque obtenue par mark, inférieure ou égale à la profondeur courante
+	 * @throws IllegalArgumentException Si la marque est négative ou plus profonde que la position courante
+	 */
+	public void reset(int mark) {
+		if (mark < 0 || mark > depth) {
+			throw new IllegalArgumentException("Marque " + mark + " invalide à la profondeur " + depth);
+		}
+
+		while (depth > mark) {
+			retreat();
+		}
+	}
+
+	/**
+	 * Curseur sur un arbre de TrieNode
+	 */
+	static final class OfNodes extends TrieCursor {
+		private TrieNode[] stack = new TrieNode[32];
+
+		OfNodes(TrieNode root) {
+			stack[0] = root;
+		}
+
+		@Override
+		public TrieCursor copy() {
+			OfNodes copy = new OfNodes(stack[0]);
+			copy.stack = Arrays.copyOf(stack, stack.length);
+			copy.depth = depth;
+			return copy;
+		}
+
+		@Override
+		public boolean isWord() {
+			return stack[depth].isEnd();
+		}
+
+		@Override
+		boolean hasWordAt(int distance) {
+			return stack[depth].hasWordAt(distance);
+		}
+
+		@Override
+		boolean hasWordWithin(int maxDistance) {
+			return TrieNode.hasLengthWithin(stack[depth].getLengths(), maxDistance);
+		}
+
+		@Override
+		long lengthMask() {
+			return stack[depth].getLengths();
+		}
+
+		@Override
+		int wordCount() {
+			return stack[depth].getCount();
+		}
+
+		@Override
+		int weight() {
+			return stack[depth].getWeight();
+		}
+
+		@Override
+		int maxWeight() {
+			return stack[depth].getMaxWeight();
+		}
+
+		@Override
+		int nextChild(int fromIndex) {
+			TrieNode[] links = stack[depth].getLinks();
+			if (links == null) {
+				return -1;
+			}
+
+			for (int i = Math.max(fromIndex, 0); i < links.length; i++) {
+				if (links[i] != null) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		boolean advanceIndex(int index) {
+			TrieNode[] links = stack[depth].getLinks();
+			if (links == null || index < 0 || index >= links.length || links[index] == null) {
+				return false;
+			}
+
+			if (depth + 1 == stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[++depth] = links[index];
+			return true;
+		}
+
+		@Override
+		public void retreat() {
+			if (depth == 0) {
+				throw new IllegalStateException("Le curseur est déjà sur la racine");
+			}
+			stack[depth--] = null;
+		}
+	}
+
+	/**
+	 * Curseur sur un arbre compacté
+	 */
+	static final class OfPacked extends TrieCursor {
+		private final PackedTrie trie;
+		private int[] stack = new int[32];
+
+		OfPacked(PackedTrie trie) {
+			this.trie = trie;
+			stack[0] = trie.root();
+		}
+
+		@Override
+		public TrieCursor copy() {
+			OfPacked copy = new OfPacked(trie);
+			copy.stack = Arrays.copyOf(stack, stack.length);
+			copy.depth = depth;
+			return copy;
+		}
+
+		@Override
+		public boolean isWord() {
+			return trie.isEnd(stack[depth]);
+		}
+
+		@Override
+		boolean hasWordAt(int distance) {
+			return TrieNode.hasLength(trie.lengthMask(stack[depth]), distance);
+		}
+
+		@Override
+		boolean hasWordWithin(int maxDistance) {
+			return TrieNode.hasLengthWithin(trie.lengthMask(stack[depth]), maxDistance);
+		}
+
+		@Override
+		long lengthMask() {
+			return trie.lengthMask(stack[depth]);
+		}
+
+		@Override
+		int wordCount() {
+			return trie.wordCount(stack[depth]);
+		}
+
+		@Override
+		int weight() {
+			return trie.weight(stack[depth]);
+		}
+
+		@Override
+		int maxWeight() {
+			return trie.maxWeight(stack[depth]);
+		}
+
+		@Override
+		int nextChild(int fromIndex) {
+			return trie.nextChild(stack[depth], fromIndex);
+		}
+
+		@Override
+		boolean advanceIndex(int index) {
+			int child = trie.child(stack[depth], index);
+			if (child < 0) {
+				return false;
+			}
+
+			if (depth + 1 == stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[++depth] = child;
+			return true;
+		}
+
+		@Override
+		public void retreat() {
+			if (depth == 0) {
+				throw new IllegalStateException("Le curseur est déjà sur la racine");
+			}
+			depth--;
+		}
+	}
+
+	/**
+	 * Curseur sur la vue fusionnée d'un OverlayDictionary : les mots de la base qui ne sont pas retirés,
+	 * plus les mots ajoutés. Les trois curseurs (base, ajouts, retraits) avancent ensemble tant qu'ils
+	 * trouvent la lettre demandée ; chacun retient jusqu'à quelle profondeur il suit le chemin courant.
+	 * Une branche n'existe dans la vue que si elle contient au moins un mot (compteurs de mots des arbres).
+	 */
+	static final class OfOverlay extends TrieCursor {
+		private final TrieCursor base;
+		private final TrieCursor added;
+		private final TrieCursor removed;
+		//Profondeur jusqu'à laquelle chaque curseur suit le chemin courant
+		private int baseDepth;
+		private int addedDepth;
+		private int removedDepth;
+
+		OfOverlay(TrieCursor base, TrieCursor added, TrieCursor removed) {
+			this.base = base;
+			this.added = added;
+			this.removed = removed;
+		}
+
+		@Override
+		public TrieCursor copy() {
+			OfOverlay copy = new OfOverlay(base.copy(), added.copy(), removed.copy());
+			copy.baseDepth = baseDepth;
+			copy.addedDepth = addedDepth;
+			copy.removedDepth = removedDepth;
+			copy.depth = depth;
+			return copy;
+		}
+
+		@Override
+		public boolean isWord() {
+			if (addedDepth == depth && added.isWord()) {
+				return true;
+			}
+			return baseDepth == depth && base.isWord() && !(removedDepth == depth && removed.isWord());
+		}
+
+		@Override
+		boolean hasWordAt(int distance) {
+			return (addedDepth == depth && added.hasWordAt(distance)) || (baseDepth == depth && base.hasWordAt(distance));
+		}
+
+		@Override
+		boolean hasWordWithin(int maxDistance) {
+			return (addedDepth == depth && added.hasWordWithin(maxDistance))
+					|| (baseDepth == depth && base.hasWordWithin(maxDistance));
+		}
+
+		@Override
+		long lengthMask() {
+			//Les mots retirés ne sont pas enlevés du masque : il peut annoncer des longueurs en trop, jamais en moins
+			long mask = addedDepth == depth ? added.lengthMask() : 0;
+			return baseDepth == depth ? mask | base.lengthMask() : mask;
+		}
+
+		@Override
+		int wordCount() {
+			int count = addedDepth == depth ? added.wordCount() : 0;
+			if (baseDepth == depth) {
+				count += base.wordCount() - (removedDepth == depth ? removed.wordCount() : 0);
+			}
+			return count;
+		}
+
+		@Override
+		int weight() {
+			if (addedDepth == depth && added.isWord()) {
+				return added.weight();
+			}
+			return baseDepth == depth ? base.weight() : 0;
+		}
+
+		@Override
+		int maxWeight() {
+			int max = addedDepth == depth ? added.maxWeight() : 0;
+			return baseDepth == depth ? Math.max(max, base.maxWeight()) : max;
+		}
+
+		@Override
+		int nextChild(int fromIndex) {
+			int from = fromIndex;
+			while (true) {
+				int a = addedDepth == depth ? added.nextChild(from) : -1;
+				int b = baseDepth == depth ? base.nextChild(from) : -1;
+				int i = a < 0 ? b : b < 0 ? a : Math.min(a, b);
+				if (i < 0) {
+					return -1;
+				}
+
+				// Les branches des ajouts contiennent toujours des mots (removeWord détache les branches vides),
+				// mais un enfant de la base dont tous les mots sont retirés n'existe pas dans la vue
+				if (i == a) {
+					return i;
+				}
+				if (advanceIndex(i)) {
+					retreat();
+					return i;
+				}
+				from = i + 1;
+			}
+		}
+
+		@Override
+		boolean advanceIndex(int index) {
+			boolean inBase = baseDepth == depth && base.advanceIndex(index);
+			boolean inAdded = addedDepth == depth && added.advanceIndex(index);
+			boolean inRemoved = removedDepth == depth && removed.advanceIndex(index);
+
+			int count = inAdded ? added.wordCount() : 0;
+			if (inBase) {
+				count += base.wordCount() - (inRemoved ? removed.wordCount() : 0);
+			}
+
+			if (count == 0) {
+				if (inBase) {
+					base.retreat();
+				}
+				if (inAdded) {
+					added.retreat();
+				}
+				if (inRemoved) {
+					removed.retreat();
+				}
+				return false;
+			}
+
+			depth++;
+			if (inBase) {
+				baseDepth = depth;
+			}
+			if (inAdded) {
+				addedDepth = depth;
+			}
+			if (inRemoved) {
+				removedDepth = depth;
+			}
+			return true;
+		}
+
+		@Override
+		public void retreat() {
+			if (depth == 0) {
+				throw new IllegalStateException("Le curseur est déjà sur la racine");
+			}
+
+			if (baseDepth == depth) {
+				base.retreat();
+				baseDepth--;
+			}
+			if (addedDepth == depth) {
+				added.retreat();
+				addedDepth--;
+			}
+			if (removedDepth == depth) {
+				removed.retreat();
+				removedDepth--;
+			}
+			depth--;
+		}
+	}
+}
@@ -3,6 +3,13 @@ package tree;
 public class TrieNode {
 		private TrieNode[] links;
 		private boolean isEnd;
+		//Bit k à 1 si un mot se termine k lettres sous ce noeud (bit 63 : 63 lettres ou plus)
+		private long lengths;
+		//Nombre de mots qui se terminent sur ce noeud ou plus bas
+		private int count;
+		//Poids du mot qui se termine sur ce noeud, et plus grand poids des mots du sous-arbre
+		private int weight;
+		private int maxWeight;
 	
 		/*
 		 * CONSTRUCTEUR
@@ -11,6 +18,20 @@ public class TrieNode {
 		   
 		}
 		
+		/**
+		 * Constructeur d'un noeud dont tous les enfants sont déjà connus (voir SortedTreeBuilder)
+		 * @param links Les enfants, à leur taille finale (null si aucun)
+		 * @param isEnd True si le noeud termine un mot
+		 * @param lengths Le masque des distances auxquelles des mots se terminent (voir getLengths)
+		 * @param count Le nombre de mots qui se terminent sur ce noeud ou plus bas
+		 */
+		TrieNode(TrieNode[] links, boolean isEnd, long lengths, int count) {
+			this.links = links;
+			this.isEnd = isEnd;
+			this.lengths = lengths;
+			this.count = count;
+		}
+		
 		/**
 		 * Méthode qui return un noeud qui correspond à la lettre donnée, 
 		 * si la lettre ne fait pas partie des enfants du noeud alors on renvoie null
@@ -18,12 +39,13 @@ public class TrieNode {
 		 * @return Le noeud qui correspond à la lettre, sinon trouvé alors null
 		 */
 		public TrieNode get(char c) {
-			try {
-				 return links[getIndex(c)];
-			}catch(Exception e) {
+			TrieNode[] links = this.links;
+			int index = getIndex(c);
+			
+			if (links == null || index < 0 || index >= links.length) {
 				return null;
 			}
-			
+			return links[index];
 		}
 		
 		public TrieNode[] getLinks() {
@@ -59,12 +81,171 @@ public class TrieNode {
 		    return isEnd;
 		}
 		
+		/**
+		 * Méthode qui retire la marque de fin de mot du noeud
+		 */
+		void unsetEnd() {
+			isEnd = false;
+		}
+		
+		/**
+		 * Méthode qui supprime l'enfant qui correspond à une lettre, puis réduit le tableau links
+		 * à la taille juste nécessaire (null s'il ne reste plus d'enfant)
+		 * @param c La lettre de l'enfant à supprimer
+		 */
+		void remove(char c) {
+			int index = getIndex(c);
+			if (links == null || index < 0 || index >= links.length) {
+				return;
+			}
+			
+			links[index] = null;
+			int last = links.length - 1;
+			while (last >= 0 && links[last] == null) {
+				last--;
+			}
+			
+			if (last < 0) {
+				links = null;
+			} else if (last + 1 < links.length) {
+				TrieNode[] newLinks = new TrieNode[last + 1];
+				System.arraycopy(links, 0, newLinks, 0, last + 1);
+				links = newLinks;
+			}
+		}
+		
+		/**
+		 * Méthode qui return le nombre de mots qui se terminent sur ce noeud ou plus bas
+		 * @return Le nombre de mots du sous-arbre
+		 */
+		int getCount() {
+			return count;
+		}
+		
+		/**
+		 * Méthode qui ajoute des mots au compteur du sous-arbre
+		 * @param words Le nombre de mots ajoutés sous ce noeud
+		 */
+		void addCount(int words) {
+			count += words;
+		}
+		
+		/**
+		 * Méthode qui indique qu'un mot se termine à une certaine distance sous ce noeud
+		 * @param distance Le nombre de lettres entre ce noeud et la fin du mot
+		 */
+		void addLength(int distance) {
+			lengths |= 1L << Math.min(distance, 63);
+		}
+		
+		/**
+		 * Méthode qui ajoute plusieurs distances d'un coup (voir getLengths)
+		 * @param mask Les distances à ajouter
+		 */
+		void addLengths(long mask) {
+			lengths |= mask;
+		}
+		
+		/**
+		 * Méthode qui return les distances auxquelles des mots se terminent sous ce noeud
+		 * @return Le masque des distances : bit k à 1 si un mot se termine k lettres plus bas
+		 */
+		long getLengths() {
+			return lengths;
+		}
+		
+		/**
+		 * Méthode qui return le poids du mot qui se termine sur ce noeud
+		 * @return Le poids (0 par défaut)
+		 */
+		int getWeight() {
+			return weight;
+		}
+		
+		/**
+		 * Méthode qui change le poids du mot qui se termine sur ce noeud (voir aussi updateFromChildren)
+		 * @param weight Le poids
+		 */
+		void setWeight(int weight) {
+			this.weight = weight;
+		}
+		
+		/**
+		 * Méthode qui return le plus grand poids des mots qui se terminent sur ce noeud ou plus bas
+		 * @return Le poids maximal du sous-arbre
+		 */
+		int getMaxWeight() {
+			return maxWeight;
+		}
+		
+		/**
+		 * Méthode qui recalcule le masque des distances et le poids maximal à partir du noeud et de ses enfants
+		 * (après une suppression ou un changement de poids)
+		 */
+		void updateFromChildren() {
+			long mask = isEnd ? 1L : 0L;
+			int max = isEnd ? weight : 0;
+			if (links != null) {
+				for (TrieNode child : links) {
+					if (child != null) {
+						mask |= shiftLengths(child.lengths, 1);
+						max = Math.max(max, child.maxWeight);
+					}
+				}
+			}
+			lengths = mask;
+			maxWeight = max;
+		}
+		
+		/**
+		 * Méthode qui permet de savoir si un mot se termine à une certaine distance sous ce noeud
+		 * @param distance Le nombre de lettres entre ce noeud et la fin du mot
+		 * @return True si un tel mot existe (ou peut exister au-delà de 63 lettres) sinon false
+		 */
+		boolean hasWordAt(int distance) {
+			return hasLength(lengths, distance);
+		}
+		
+		/**
+		 * Méthode qui teste une distance dans un masque de distances
+		 * @param mask Le masque (bit 63 : 63 lettres ou plus)
+		 * @param distance La distance
+		 * @return True si la distance est présente dans le masque sinon false
+		 */
+		static boolean hasLength(long mask, int distance) {
+			return distance >= 0 && (mask & (1L << Math.min(distance, 63))) != 0;
+		}
+		
+		/**
+		 * Méthode qui permet de savoir si un masque contient une distance inférieure ou égale à une borne
+		 * @param mask Le masque (bit 63 : 63 lettres ou plus)
+		 * @param maxDistance La distance maximale
+		 * @return True si une distance entre 0 et maxDistance est présente dans le masque sinon false
+		 */
+		static boolean hasLengthWithin(long mask, int maxDistance) {
+			if (maxDistance < 0) {
+				return false;
+			}
+			return maxDistance >= 63 ? mask != 0 : (mask & ((1L << (maxDistance + 1)) - 1)) != 0;
+		}
+		
+		/**
+		 * Méthode qui décale un masque de distances (celui d'un enfant vers son parent par exemple)
+		 * @param mask Le masque (bit 63 : 63 lettres ou plus)
+		 * @param by Le nombre de niveaux (entre 1 et 63)
+		 * @return Le masque décalé, les distances de 63 ou plus restant sur le bit 63
+		 */
+		static long shiftLengths(long mask, int by) {
+			long overflow = mask >>> (63 - by);
+			return (mask << by) | (overflow != 0 ? 1L << 63 : 0);
+		}
+		
 	    /**
 	     * Méthode qui permet de récupérer l'index d'une lettre
 	     * @param c La lettre dont on souhaite l'index
 	     * @return L'index correspondant à la lettre
 	     */
-		private int getIndex(char c) {
+		static int getIndex(char c) {
 		    if (c == '-') {
 		        return 26;
 		    } else if (c == '\'') {
@@ -73,4 +254,37 @@ public class TrieNode {
 		        return c - 'a';
 		    }
 		}
+		
+	    /**
+	     * Méthode qui permet de récupérer la lettre correspondant à un index (inverse de getIndex)
+	     * @param index L'index dont on souhaite la lettre
+	     * @return La lettre correspondant à l'index
+	     */
+		static char getLetter(int index) {
+		    if (index == 26) {
+		        return '-';
+		    } else if (index == 27) {
+		        return '\'';
+		    } else {
+		        return (char)('a' + index);
+		    }
+		}
+		
+	    /**
+	     * Méthode qui compare deux chaînes dans l'ordre de l'arbre (ordre des index de lettres, voir getIndex) :
+	     * c'est l'ordre des mots rendus par getWords
+	     * @param a La première chaîne
+	     * @param b La seconde chaîne
+	     * @return Un nombre négatif, nul ou positif selon que a est avant, égale ou après b
+	     */
+		static int compareTrieOrder(String a, String b) {
+		    int n = Math.min(a.length(), b.length());
+		    for (int i = 0; i < n; i++) {
+		        int diff = getIndex(a.charAt(i)) - getIndex(b.charAt(i));
+		        if (diff != 0) {
+		            return diff;
+		        }
+		    }
+		    return a.length() - b.length();
+		}
 }
@@ -0,0 +1,106 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichier binaire qui contient un dictionnaire sous forme d'automate minimal (voir Dawg).
+ * A l'ouverture, le fichier est projeté en mémoire (FileChannel.map) et les recherches
+ * lisent directement les octets du fichier : aucun noeud n'est désérialisé.
+ *
+ * Format (little endian) :
+ * magic, version, nombre de mots, racine, taille de l'alphabet, nombre d'états, nombre de transitions, 0
+ * puis les tableaux de l'automate (voir Dawg.writeTo).
+ */
+final class TrieSnapshot {
+	private static final int MAGIC = 0x4C455854; // "LEXT"
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 8 * 4;
+
+	private TrieSnapshot() {
+
+	}
+
+	/**
+	 * Méthode qui écrit un automate dans un fichier snapshot
+	 * @param dawg L'automate
+	 * @param size Le nombre de mots de l'automate
+	 * @param filename Le fichier de destination (écrasé s'il existe)
+	 * @throws IOException Si l'écriture échoue
+	 */
+	static void save(Dawg dawg, int size, String filename) throws IOException {
+		long length = HEADER_SIZE + dawg.byteSize();
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("Dictionnaire trop grand pour un snapshot : " + length + " octets");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(dawg.root()).putInt(dawg.alphabetSize())
+				.putInt(dawg.stateCount()).putInt(dawg.edgeCount()).putInt(0);
+		dawg.writeTo(buffer);
+		buffer.flip();
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui projette un fichier snapshot en mémoire
+	 * @param filename Le fichier snapshot
+	 * @return Le nombre de mots (size) et l'automate, qui lit directement le fichier projeté
+	 * @throws IOException Si le fichier ne peut pas être lu ou n'est pas un snapshot valide
+	 */
+	static Mapped open(String filename) throws IOException {
+		Path path = Paths.get(filename);
+		MappedByteBuffer buffer;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			throw new IOException("Le fichier " + filename + " n'est pas un snapshot de dictionnaire");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Version de snapshot non supportée : " + version);
+		}
+
+		int size = buffer.getInt();
+		int root = buffer.getInt();
+		int alphabetSize = buffer.getInt();
+		int stateCount = buffer.getInt();
+		int edgeCount = buffer.getInt();
+		buffer.getInt();
+
+		long expected = HEADER_SIZE + (stateCount + 63) / 64 * 8L + stateCount * 8L + (stateCount * 2 + 1) * 4L + edgeCount * 6L;
+		if (buffer.limit() != expected) {
+			throw new IOException("Le fichier " + filename + " est tronqué ou corrompu");
+		}
+		return new Mapped(Dawg.read(buffer, stateCount, edgeCount, root, alphabetSize), size);
+	}
+
+	/**
+	 * Résultat de open : l'automate projeté et son nombre de mots
+	 */
+	static final class Mapped {
+		final Dawg dawg;
+		final int size;
+
+		Mapped(Dawg dawg, int size) {
+			this.dawg = dawg;
+			this.size = size;
+		}
+	}
+}
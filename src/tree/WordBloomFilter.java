@@ -0,0 +1,145 @@
+package tree;
+
+/**
+ * Filtre de Bloom "par blocs" sur les mots du dictionnaire, utilisé par containsWord pour
+ * rejeter la plupart des mots absents sans parcourir l'arbre.
+ * Toutes les positions d'un mot tombent dans un même bloc de 512 bits (une ligne de cache) :
+ * un mot absent est en général rejeté dès le premier ou le deuxième bit testé, en une seule lecture mémoire.
+ * Un filtre de Bloom ne se trompe que dans un sens : il peut répondre "peut-être présent"
+ * pour un mot absent (faux positif), jamais "absent" pour un mot présent.
+ */
+final class WordBloomFilter {
+	private static final int BLOCK_LONGS = 8;
+	private static final int BLOCK_BITS = BLOCK_LONGS * 64;
+	//Les blocs perdent un peu de précision par rapport à un filtre classique : on prévoit un peu plus de bits
+	private static final double BLOCK_OVERHEAD = 1.15;
+	private static final int MAX_HASHES = 16;
+
+	private final long[] bits;
+	private final int blocks;
+	private final int hashes;
+	private final double falsePositiveRate;
+
+	/**
+	 * Constructeur : crée un filtre vide dimensionné pour un nombre de mots et un taux de faux positifs
+	 * @param expectedWords Le nombre de mots prévus
+	 * @param falsePositiveRate Le taux de faux positifs souhaité, entre 0 et 1 (exclus)
+	 */
+	WordBloomFilter(int expectedWords, double falsePositiveRate) {
+		double bitsPerWord = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+		long totalBits = (long) Math.ceil(Math.max(expectedWords, 1) * bitsPerWord * BLOCK_OVERHEAD);
+
+		this.blocks = (int) Math.max(1, (totalBits + BLOCK_BITS - 1) / BLOCK_BITS);
+		this.bits = new long[blocks * BLOCK_LONGS];
+		this.hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerWord * Math.log(2))));
+		this.falsePositiveRate = falsePositiveRate;
+	}
+
+	/**
+	 * Méthode qui ajoute un mot au filtre
+	 * @param word Le mot
+	 */
+	void add(CharSequence word) {
+		long h = hash(word);
+		int block = block(h);
+		long g = mix(h ^ 0x9E3779B97F4A7C15L);
+
+		for (int i = 0; i < hashes; i++) {
+			int bit = (int) (g >>> 55);
+			bits[block + (bit >>> 6)] |= 1L << bit;
+			g *= 0xD6E8FEB86659FD93L;
+		}
+	}
+
+	/**
+	 * Méthode qui permet de savoir si un mot peut être présent
+	 * @param word Le mot
+	 * @return False si le mot est certainement absent, true s'il est peut-être présent
+	 */
+	boolean mightContain(CharSequence word) {
+		return mightContain(hash(word));
+	}
+
+	/**
+	 * Méthode qui permet de savoir si les lettres buf[off .. off + len - 1] forment un mot qui peut être présent
+	 * @param buf Le tableau de lettres
+	 * @param off L'index de la première lettre
+	 * @param len Le nombre de lettres
+	 * @return False si le mot est certainement absent, true s'il est peut-être présent
+	 */
+	boolean mightContain(char[] buf, int off, int len) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = off; i < off + len; i++) {
+			h = (h ^ buf[i]) * 0x100000001B3L;
+		}
+		return mightContain(mix(h));
+	}
+
+	/**
+	 * Méthode qui return la place occupée par le filtre en mémoire
+	 * @return Le nombre d'octets du tableau de bits
+	 */
+	long byteSize() {
+		return bits.length * 8L;
+	}
+
+	/**
+	 * Méthode qui return le taux de faux positifs pour lequel le filtre a été dimensionné
+	 * @return Le taux de faux positifs
+	 */
+	double falsePositiveRate() {
+		return falsePositiveRate;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private boolean mightContain(long h) {
+		int block = block(h);
+		long g = mix(h ^ 0x9E3779B97F4A7C15L);
+
+		for (int i = 0; i < hashes; i++) {
+			int bit = (int) (g >>> 55);
+			if ((bits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+			g *= 0xD6E8FEB86659FD93L;
+		}
+		return true;
+	}
+
+	/**
+	 * Méthode qui return l'index du premier long du bloc d'un mot
+	 * @param h Le hash du mot
+	 * @return L'index dans bits
+	 */
+	private int block(long h) {
+		return (int) (((h >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+	}
+
+	/**
+	 * Méthode qui calcule le hash d'un mot (FNV-1a puis mélange des bits)
+	 * @param word Le mot
+	 * @return Le hash sur 64 bits
+	 */
+	private static long hash(CharSequence word) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0; i < word.length(); i++) {
+			h = (h ^ word.charAt(i)) * 0x100000001B3L;
+		}
+		return mix(h);
+	}
+
+	/**
+	 * Finaliseur de MurmurHash3 : chaque bit du résultat dépend de tous les bits de l'entrée
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
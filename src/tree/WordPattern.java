@@ -0,0 +1,185 @@
+package tree;
+
+/**
+ * Motif de recherche compilé en automate, parcouru en même temps que l'arbre.
+ * Syntaxe :
+ * - une lettre correspond à elle-même ;
+ * - ? correspond à n'importe quelle lettre ;
+ * - [abc] correspond à une des lettres listées, [a-f] à une plage de lettres
+ *   (un - en première ou dernière position est la lettre -) ;
+ * - * correspond à une suite de lettres, éventuellement vide.
+ *
+ * Un état de l'automate est l'ensemble des positions du motif qui restent possibles,
+ * stocké dans un long (bit p : le prochain élément à reconnaître est le p-ième).
+ */
+final class WordPattern {
+	private static final int MAX_ELEMENTS = 63;
+	private static final int MAX_INDEX = 64;
+
+	private final int length;
+	//Pour chaque élément : un *, n'importe quelle lettre (?) ou un ensemble d'index de lettres
+	private final boolean[] star;
+	private final boolean[] any;
+	private final long[] letters;
+	private final long starMask;
+
+	private WordPattern(int length, boolean[] star, boolean[] any, long[] letters) {
+		this.length = length;
+		this.star = star;
+		this.any = any;
+		this.letters = letters;
+
+		long mask = 0;
+		for (int p = 0; p < length; p++) {
+			if (star[p]) {
+				mask |= 1L << p;
+			}
+		}
+		this.starMask = mask;
+	}
+
+	/**
+	 * Méthode qui compile un motif
+	 * @param pattern Le motif
+	 * @return Le motif compilé
+	 * @throws IllegalArgumentException Si le motif est mal formé, trop long ou contient une lettre hors alphabet
+	 */
+	static WordPattern compile(String pattern) {
+		boolean[] star = new boolean[MAX_ELEMENTS];
+		boolean[] any = new boolean[MAX_ELEMENTS];
+		long[] letters = new long[MAX_ELEMENTS];
+		int n = 0;
+
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			// Plusieurs * de suite équivalent à un seul
+			if (c == '*' && n > 0 && star[n - 1]) {
+				continue;
+			}
+			if (n == MAX_ELEMENTS) {
+				throw new IllegalArgumentException("Motif trop long (" + MAX_ELEMENTS + " éléments au maximum) : " + pattern);
+			}
+
+			if (c == '*') {
+				star[n] = true;
+			} else if (c == '?') {
+				any[n] = true;
+			} else if (c == '[') {
+				int end = pattern.indexOf(']', i + 1);
+				if (end < 0) {
+					throw new IllegalArgumentException("Classe de lettres non fermée dans le motif : " + pattern);
+				}
+				letters[n] = parseClass(pattern, i + 1, end);
+				i = end;
+			} else {
+				letters[n] = 1L << indexOf(c, pattern);
+			}
+			n++;
+		}
+
+		return new WordPattern(n, star, any, letters);
+	}
+
+	/**
+	 * Méthode qui return l'état de départ (aucune lettre lue)
+	 * @return L'état de départ
+	 */
+	long start() {
+		return closure(1L);
+	}
+
+	/**
+	 * Méthode qui fait avancer l'automate d'une lettre
+	 * @param states L'état courant
+	 * @param index L'index de la lettre lue
+	 * @return Le nouvel état, 0 si plus aucun mot ne peut correspondre au motif
+	 */
+	long step(long states, int index) {
+		long next = 0;
+
+		for (long s = states; s != 0; s &= s - 1) {
+			int p = Long.numberOfTrailingZeros(s);
+			if (p == length) {
+				continue;
+			}
+
+			if (star[p]) {
+				next |= 1L << p;
+			} else if (any[p] || (index >= 0 && index < MAX_INDEX && (letters[p] >>> index & 1) != 0)) {
+				next |= 1L << (p + 1);
+			}
+		}
+
+		return closure(next);
+	}
+
+	/**
+	 * Méthode qui permet de savoir si les lettres lues correspondent à tout le motif
+	 * @param states L'état courant
+	 * @return True si le motif est entièrement reconnu sinon false
+	 */
+	boolean accepts(long states) {
+		return (states >>> length & 1) != 0;
+	}
+
+	/**
+	 * Méthode qui return le nombre exact de lettres qui restent à lire, quand le motif ne contient pas de *
+	 * @param states L'état courant (non nul)
+	 * @return Le nombre de lettres restantes, -1 s'il n'est pas fixé
+	 */
+	int remaining(long states) {
+		if (starMask != 0) {
+			return -1;
+		}
+		return length - Long.numberOfTrailingZeros(states);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Méthode qui ajoute à un état les positions qui suivent un * (un * peut ne rien reconnaître)
+	 * @param states L'état
+	 * @return L'état complété
+	 */
+	private long closure(long states) {
+		long stars = states & starMask;
+		while (stars != 0) {
+			int p = Long.numberOfTrailingZeros(stars);
+			states |= 1L << (p + 1);
+			stars = states & starMask & (-1L << (p + 1));
+		}
+		return states;
+	}
+
+	private static long parseClass(String pattern, int from, int to) {
+		long mask = 0;
+
+		for (int k = from; k < to; k++) {
+			char c = pattern.charAt(k);
+			if (k + 2 < to && pattern.charAt(k + 1) == '-') {
+				char last = pattern.charAt(k + 2);
+				for (char x = c; x <= last; x++) {
+					mask |= 1L << indexOf(x, pattern);
+				}
+				k += 2;
+			} else {
+				mask |= 1L << indexOf(c, pattern);
+			}
+		}
+
+		if (mask == 0) {
+			throw new IllegalArgumentException("Classe de lettres vide dans le motif : " + pattern);
+		}
+		return mask;
+	}
+
+	private static int indexOf(char c, String pattern) {
+		int index = TrieNode.getIndex(c);
+		if (index < 0 || index >= MAX_INDEX) {
+			throw new IllegalArgumentException("Lettre '" + c + "' hors alphabet dans le motif : " + pattern);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,247 @@
+package tree;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Parcours paresseux des mots qui commencent par un préfix, dans l'ordre de l'arbre.
+ * Le parcours en profondeur utilise une pile explicite (le curseur et l'index du prochain enfant
+ * à visiter à chaque niveau) : la mémoire utilisée ne dépend que de la longueur des mots.
+ * Tant que le parcours n'a pas commencé, trySplit coupe en deux la plage d'enfants du préfix
+ * (ou descend d'un niveau quand il ne reste qu'un enfant), ce qui permet les streams parallèles.
+ * Les compteurs de mots des noeuds donnent la taille exacte de chaque partie (un majorant
+ * quand on filtre par taille de mot).
+ */
+final class WordSpliterator implements Spliterator<String> {
+	private final Supplier<TrieCursor> cursors;
+	private final int length;
+
+	//Partie de l'arbre couverte : le préfix lui-même (includeSelf) et ses enfants d'index [low, high)
+	private String prefix;
+	private int low;
+	private int high;
+	private boolean includeSelf;
+	//Nombre de mots de la partie couverte (majorant si on filtre par taille)
+	private long estimate;
+
+	//État du parcours, créé au premier tryAdvance
+	private TrieCursor cursor;
+	private StringBuilder sb;
+	private int[] next;
+	private int baseDepth;
+	private boolean selfPending;
+	private boolean finished;
+
+	private WordSpliterator(Supplier<TrieCursor> cursors, int length, String prefix, int low, int high, boolean includeSelf,
+			long estimate) {
+		this.cursors = cursors;
+		this.length = length;
+		this.prefix = prefix;
+		this.low = low;
+		this.high = high;
+		this.includeSelf = includeSelf;
+		this.estimate = estimate;
+	}
+
+	/**
+	 * Méthode qui crée le parcours des mots qui commencent par un préfix
+	 * @param cursors Fournit un nouveau curseur positionné sur la racine
+	 * @param prefix Le préfix
+	 * @param length La taille des mots souhaités, -1 pour toutes les tailles
+	 * @return Le parcours
+	 */
+	static WordSpliterator of(Supplier<TrieCursor> cursors, String prefix, int length) {
+		TrieCursor probe = cursors.get();
+		if (!walk(probe, prefix) || (length >= 0 && prefix.length() > length)) {
+			return new WordSpliterator(cursors, length, prefix, 0, 0, false, 0);
+		}
+
+		boolean self = accepts(probe, length);
+		int high = childLimit(prefix.length(), length);
+		long estimate = high == 0 ? (self ? 1 : 0) : probe.wordCount();
+		return new WordSpliterator(cursors, length, prefix, 0, high, self, estimate);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action) {
+		if (cursor == null) {
+			start();
+		}
+
+		String word = nextWord();
+		if (word == null) {
+			return false;
+		}
+
+		action.accept(word);
+		return true;
+	}
+
+	@Override
+	public Spliterator<String> trySplit() {
+		if (cursor != null) {
+			return null;
+		}
+
+		TrieCursor probe = cursors.get();
+		if (!walk(probe, prefix)) {
+			return null;
+		}
+
+		while (true) {
+			int first = probe.nextChild(low);
+			if (first < 0 || first >= high) {
+				return null;
+			}
+
+			int second = probe.nextChild(first + 1);
+			if (second >= 0 && second < high) {
+				int middle = middleChild(probe, first);
+				long leftEstimate = childrenCount(probe, first, middle) + (includeSelf ? 1 : 0);
+				WordSpliterator left = new WordSpliterator(cursors, length, prefix, low, middle, includeSelf, leftEstimate);
+				low = middle;
+				includeSelf = false;
+				estimate -= leftEstimate;
+				return left;
+			}
+
+			if (includeSelf) {
+				WordSpliterator self = new WordSpliterator(cursors, length, prefix, 0, 0, true, 1);
+				includeSelf = false;
+				estimate--;
+				return self;
+			}
+
+			// Un seul enfant : on descend d'un niveau
+			probe.advanceIndex(first);
+			prefix = prefix + TrieNode.getLetter(first);
+			low = 0;
+			high = childLimit(prefix.length(), length);
+			includeSelf = accepts(probe, length);
+		}
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		int characteristics = ORDERED | DISTINCT | NONNULL;
+		return length < 0 ? characteristics | SIZED | SUBSIZED : characteristics;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private void start() {
+		cursor = cursors.get();
+		finished = !walk(cursor, prefix);
+		sb = new StringBuilder(prefix);
+		baseDepth = cursor.depth();
+		next = new int[16];
+		next[0] = low;
+		selfPending = includeSelf;
+	}
+
+	/**
+	 * Méthode qui avance jusqu'au prochain mot accepté
+	 * @return Le mot, null si le parcours est terminé
+	 */
+	private String nextWord() {
+		if (finished) {
+			return null;
+		}
+		if (selfPending) {
+			selfPending = false;
+			return sb.toString();
+		}
+
+		while (true) {
+			int level = cursor.depth() - baseDepth;
+			int limit = level == 0 ? high : Integer.MAX_VALUE;
+			int i = length >= 0 && cursor.depth() >= length ? -1 : cursor.nextChild(next[level]);
+
+			if (i >= 0 && i < limit) {
+				next[level] = i + 1;
+				cursor.advanceIndex(i);
+				sb.append(TrieNode.getLetter(i));
+
+				if (level + 1 == next.length) {
+					next = Arrays.copyOf(next, next.length * 2);
+				}
+				next[level + 1] = 0;
+
+				if (length >= 0 && !cursor.hasWordAt(length - cursor.depth())) {
+					cursor.retreat();
+					sb.setLength(sb.length() - 1);
+				} else if (accepts(cursor, length)) {
+					return sb.toString();
+				}
+			} else if (level == 0) {
+				finished = true;
+				return null;
+			} else {
+				cursor.retreat();
+				sb.setLength(sb.length() - 1);
+			}
+		}
+	}
+
+	/**
+	 * Méthode qui return l'index d'enfant qui coupe en deux les enfants de [first, high)
+	 * @param probe Le curseur positionné sur le préfix
+	 * @param first Le premier enfant de la plage
+	 * @return L'index du premier enfant de la seconde moitié
+	 */
+	private int middleChild(TrieCursor probe, int first) {
+		int count = 0;
+		for (int i = first; i >= 0 && i < high; i = probe.nextChild(i + 1)) {
+			count++;
+		}
+
+		int middle = first;
+		for (int k = 0; k < count / 2; k++) {
+			middle = probe.nextChild(middle + 1);
+		}
+		return middle;
+	}
+
+	/**
+	 * Méthode qui return le nombre de mots sous les enfants d'index [from, to)
+	 * @param probe Le curseur positionné sur le préfix
+	 * @param from Le premier enfant de la plage
+	 * @param to La fin (exclue) de la plage
+	 * @return Le nombre de mots
+	 */
+	private static long childrenCount(TrieCursor probe, int from, int to) {
+		long count = 0;
+		for (int i = from; i >= 0 && i < to; i = probe.nextChild(i + 1)) {
+			probe.advanceIndex(i);
+			count += probe.wordCount();
+			probe.retreat();
+		}
+		return count;
+	}
+
+	private static boolean accepts(TrieCursor cursor, int length) {
+		return cursor.isWord() && (length < 0 || cursor.depth() == length);
+	}
+
+	private static int childLimit(int depth, int length) {
+		return length >= 0 && depth >= length ? 0 : Integer.MAX_VALUE;
+	}
+
+	private static boolean walk(TrieCursor cursor, String prefix) {
+		for (int i = 0; i < prefix.length(); i++) {
+			if (!cursor.advance(prefix.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,116 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConcurrentLexicographicTreeTest {
+	private static final String[] WORDS = new String[] {"aide", "as", "au", "aux",
+			"bu", "bus", "but", "et", "ete"};
+
+	@Test
+	void constructor_EmptyDictionary() {
+		ConcurrentLexicographicTree dict = new ConcurrentLexicographicTree();
+		assertEquals(0, dict.size());
+		assertFalse(dict.containsWord("bus"));
+	}
+	
+	@Test
+	void constructor_with_invalid_filename() {	
+		assertEquals(0, new ConcurrentLexicographicTree("francis").size());
+	}
+	
+	@Test
+	void same_results_as_LexicographicTree() {
+		ConcurrentLexicographicTree dict = new ConcurrentLexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+			dict.insertWord(word);
+		}
+		
+		assertEquals(WORDS.length, dict.size());
+		assertArrayEquals(WORDS, dict.getWords("").toArray());
+		assertArrayEquals(new String[] {"bu", "bus", "but"}, dict.getWords("bu").toArray());
+		assertArrayEquals(new String[] {"aux", "bus", "but", "ete"}, dict.getWordsOfLength(3).toArray());
+		assertEquals(0, dict.getWordsOfLength(0).size());
+		assertTrue(dict.existPrefix("ai"));
+		assertFalse(dict.existPrefix("zo"));
+		assertFalse(dict.containsWord("ai"));
+		assertFalse(dict.containsWord("ého@"));
+	}
+	
+	@Test
+	void insert_unsupported_letter() {
+		ConcurrentLexicographicTree dict = new ConcurrentLexicographicTree();
+		
+		assertThrows(IllegalArgumentException.class, () -> dict.insertWord("été"));
+		assertFalse(dict.existPrefix("e"));
+		assertTrue(dict.getWords("").isEmpty());
+	}
+	
+	@Test
+	void constructor_skips_unsupported_letters(@TempDir Path folder) throws IOException {
+		Path file = folder.resolve("mots.txt");
+		Files.write(file, Arrays.asList("maison", "été", "arbre", "café", "porte-cle"), StandardCharsets.UTF_8);
+		
+		// FileReader lit le fichier avec le jeu de caractères de la plateforme : en UTF-8, "été" et "café" gardent
+		// leurs accents et sont ignorés, en ASCII les accents disparaissent au nettoyage (comme dans LexicographicTree)
+		ConcurrentLexicographicTree dict = new ConcurrentLexicographicTree(file.toString());
+		List<String> expected = new LexicographicTree(file.toString()).getWords("");
+		expected.removeIf(word -> !word.matches("[a-z'-]*"));
+		assertEquals(expected, dict.getWords(""));
+		assertEquals(5, dict.size() + dict.skippedLines());
+		assertTrue(dict.containsWord("porte-cle"));
+		assertNull(dict.loadError());
+		assertNotNull(new ConcurrentLexicographicTree("francis").loadError());
+	}
+	
+	@Test
+	void concurrent_insert_and_lookup() throws Exception {
+		ConcurrentLexicographicTree dict = new ConcurrentLexicographicTree();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		
+		// Chaque mot est inséré par deux threads différents
+		for (int t = 0; t < 4; t++) {
+			final int offset = t % 2;
+			futures.add(executor.submit(() -> {
+				for (int i = offset; i < 20000; i += 2) {
+					dict.insertWord(numberToWord(i));
+					assertTrue(dict.containsWord(numberToWord(i)));
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		
+		assertEquals(20000, dict.size());
+		assertEquals(20000, dict.getWords("").size());
+	}
+	
+	private static String numberToWord(int number) {
+		StringBuilder word = new StringBuilder();
+		do {
+			word.append((char)('a' + number % 26));
+			number /= 26;
+		} while (number != 0);
+		return word.toString();
+	}
+}
@@ -0,0 +1,142 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.io.TempDir;
+
+public class DictionaryHolderTest {
+	private static final String[] WORDS = new String[] {"aide", "as", "au", "aux",
+			"bu", "bus", "but", "et", "ete"};
+
+	private static LexicographicTree dictionary(String... words) {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : words) {
+			dict.insertWord(word);
+		}
+		return dict;
+	}
+
+	@Test
+	void holder_freezes_initial_dictionary() {
+		LexicographicTree dict = dictionary(WORDS);
+		DictionaryHolder holder = new DictionaryHolder(dict);
+		assertTrue(holder.get().isFrozen());
+		assertEquals(0, holder.version());
+		
+		dict.insertWord("zebre");
+		assertFalse(holder.get().containsWord("zebre"));
+		assertEquals(WORDS.length, holder.get().size());
+	}
+
+	@Test
+	void reload_publishes_new_version_and_keeps_old_snapshots() throws Exception {
+		DictionaryHolder holder = new DictionaryHolder(dictionary(WORDS));
+		LexicographicTree before = holder.get();
+		
+		LexicographicTree after = holder.reload(() -> dictionary("zebre", "zebu")).get(10, TimeUnit.SECONDS);
+		assertSame(after, holder.get());
+		assertEquals(1, holder.version());
+		assertTrue(after.containsWord("zebre"));
+		assertFalse(after.containsWord("bus"));
+		
+		// Une recherche commencée avant le rechargement continue sur l'ancienne version
+		assertTrue(before.containsWord("bus"));
+		assertEquals(Arrays.asList(WORDS), before.getWords(""));
+	}
+
+	@Test
+	void failed_reload_keeps_current_version(@TempDir Path folder) throws IOException {
+		DictionaryHolder holder = new DictionaryHolder(dictionary(WORDS));
+		LexicographicTree before = holder.get();
+		
+		CompletableFuture<LexicographicTree> missing = holder.reload(folder.resolve("absent.txt").toString());
+		assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS));
+		CompletableFuture<LexicographicTree> failing = holder.reload(() -> { throw new IllegalStateException(); });
+		assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+		assertSame(before, holder.get());
+		
+		Path file = folder.resolve("mots.txt");
+		Files.write(file, Arrays.asList("maison", "chat"));
+		assertEquals(2, holder.reload(file.toString()).join().size());
+	}
+
+	@Test
+	void late_reload_does_not_replace_newer_version() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			DictionaryHolder holder = new DictionaryHolder(dictionary(WORDS), executor);
+			CountDownLatch release = new CountDownLatch(1);
+			
+			CompletableFuture<LexicographicTree> slow = holder.reload(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return dictionary("ancien");
+			});
+			LexicographicTree fast = holder.reload(() -> dictionary("nouveau")).get(10, TimeUnit.SECONDS);
+			release.countDown();
+			
+			assertSame(fast, slow.get(10, TimeUnit.SECONDS));
+			assertSame(fast, holder.get());
+			assertTrue(holder.get().containsWord("nouveau"));
+			assertEquals(2, holder.version());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void readers_always_see_a_complete_version() throws Exception {
+		String[] first = WORDS;
+		String[] second = new String[] {"maison", "maisons", "chat", "chats"};
+		DictionaryHolder holder = new DictionaryHolder(dictionary(first));
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService readers = Executors.newFixedThreadPool(2);
+		
+		try {
+			Future<?>[] results = new Future<?>[2];
+			for (int r = 0; r < results.length; r++) {
+				results[r] = readers.submit(() -> {
+					while (running.get()) {
+						LexicographicTree dict = holder.get();
+						String[] expected = dict.containsWord("bus") ? first : second;
+						assertEquals(expected.length, dict.size());
+						assertEquals(expected.length, dict.getWords("").size());
+						for (String word : expected) {
+							assertTrue(dict.containsWord(word));
+						}
+					}
+				});
+			}
+			
+			for (int i = 0; i < 20; i++) {
+				holder.reload(() -> dictionary(second)).get(10, TimeUnit.SECONDS);
+				holder.publish(dictionary(first));
+			}
+			running.set(false);
+			for (Future<?> result : results) {
+				result.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			running.set(false);
+			readers.shutdownNow();
+		}
+	}
+}
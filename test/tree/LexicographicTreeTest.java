@@ -4,7 +4,23 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
 
 /* ---------------------------------------------------------------- */
 
@@ -328,4 +344,1399 @@ public class LexicographicTreeTest {
 		assertEquals("APAAFLGJJDDSKKS", dict.giveCompatibleWord("BSBBCQVTTFFXIIX".toLowerCase()));
 		assertEquals(null, dict.giveCompatibleWord("BSBBCQVTTFFXIIX".toLowerCase()));
 	}
+	
+	//PACK
+	@Test
+	void pack_same_results() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		dict.insertWord("porte-cle");
+		dict.insertWord("aujourd'hui");
+		dict.pack();
+		
+		assertTrue(dict.isPacked());
+		assertEquals(WORDS.length + 2, dict.size());
+		for (String word : WORDS) {
+			assertTrue(dict.containsWord(word), "Mot " + word + " non trouvé");
+		}
+		for (String word : new String[] {"", "aid", "ai", "aides", "mot", "e", "ého@", "AIDE"}) {
+			assertFalse(dict.containsWord(word), "Mot " + word + " inexistant trouvé");
+		}
+		assertTrue(dict.containsWord("porte-cle"));
+		assertTrue(dict.containsWord("aujourd'hui"));
+		
+		assertArrayEquals(new String[] {"bu", "bus", "but"}, dict.getWords("bu").toArray());
+		assertArrayEquals(new String[] {"porte-cle"}, dict.getWords("porte").toArray());
+		assertArrayEquals(new String[] {"aux", "bus", "but", "ete"}, dict.getWordsOfLength(3).toArray());
+		assertEquals(0, dict.getWords("x").size());
+		
+		assertTrue(dict.existPrefix("aujourd'"));
+		assertFalse(dict.existPrefix("zo"));
+	}
+	
+	@Test
+	void pack_dictionary_file() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_test.txt");
+		LexicographicTree packed = new LexicographicTree("mots/dictionnaire_test.txt");
+		packed.pack();
+		
+		assertEquals(dict.getWords(""), packed.getWords(""));
+		for (int n = 0; n < 20; n++) {
+			assertEquals(dict.getWordsOfLength(n), packed.getWordsOfLength(n));
+		}
+		assertEquals("PAPA", packed.giveCompatibleWord("LOLO"));
+	}
+	
+	@Test
+	void pack_insert_forbidden() {
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("tacos");
+		dict.pack();
+		
+		assertThrows(UnsupportedOperationException.class, () -> dict.insertWord("burger"));
+	}
+	
+	@Test
+	void pack_empty_tree() {
+		LexicographicTree dict = new LexicographicTree();
+		dict.pack();
+		
+		assertEquals(0, dict.size());
+		assertFalse(dict.containsWord(""));
+		assertFalse(dict.existPrefix("zo"));
+		assertEquals(0, dict.getWords("").size());
+	}
+	
+	//DAWG
+	@Test
+	void minimize_same_results() {
+		LexicographicTree dict = LexicographicTree.minimize(Arrays.asList(WORDS));
+		
+		assertTrue(dict.isPacked());
+		assertEquals(WORDS.length, dict.size());
+		for (String word : WORDS) {
+			assertTrue(dict.containsWord(word), "Mot " + word + " non trouvé");
+		}
+		for (String word : new String[] {"", "aid", "ai", "aides", "mot", "e"}) {
+			assertFalse(dict.containsWord(word), "Mot " + word + " inexistant trouvé");
+		}
+		assertArrayEquals(WORDS, dict.getWords("").toArray());
+		assertArrayEquals(new String[] {"bu", "bus", "but"}, dict.getWords("bu").toArray());
+		assertArrayEquals(new String[] {"aux", "bus", "but", "ete"}, dict.getWordsOfLength(3).toArray());
+		assertTrue(dict.existPrefix("ai"));
+		assertFalse(dict.existPrefix("zo"));
+	}
+	
+	@Test
+	void minimize_shared_suffixes() {
+		LexicographicTree dict = LexicographicTree.minimize(Arrays.asList(
+				"a-cote", "chantement", "chanter", "chanterions", "lentement", "lenter", "lenterions"));
+		
+		assertEquals(7, dict.size());
+		assertTrue(dict.containsWord("a-cote"));
+		assertTrue(dict.containsWord("lenterions"));
+		assertFalse(dict.containsWord("chantions"));
+		assertArrayEquals(new String[] {"chantement", "chanter", "chanterions"}, dict.getWords("chant").toArray());
+	}
+	
+	@Test
+	void minimize_duplicates_ignored() {
+		LexicographicTree dict = LexicographicTree.minimize(Arrays.asList("bu", "bu", "bus"));
+		
+		assertEquals(2, dict.size());
+	}
+	
+	@Test
+	void minimize_unsorted() {
+		assertThrows(IllegalArgumentException.class, () -> LexicographicTree.minimize(Arrays.asList("bu", "ca", "bus")));
+	}
+	
+	@Test
+	void minimize_tree_order() {
+		LexicographicTree dict = LexicographicTree.minimize(Arrays.asList("bus", "bu", "porte", "porte-cle", "portes"));
+		
+		assertEquals(5, dict.size());
+		assertArrayEquals(new String[] {"porte", "portes", "porte-cle"}, dict.getWords("porte").toArray());
+	}
+	
+	@Test
+	void loadMinimized_dictionary_file() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		LexicographicTree minimized = LexicographicTree.loadMinimized("mots/dictionnaire_FR_sans_accents.txt");
+		
+		assertEquals(dict.size(), minimized.size());
+		assertEquals(dict.getWords(""), minimized.getWords(""));
+		assertEquals(dict.getWordsOfLength(7), minimized.getWordsOfLength(7));
+	}
+	
+	@Test
+	void loadMinimized_small_file() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_test.txt");
+		LexicographicTree minimized = LexicographicTree.loadMinimized("mots/dictionnaire_test.txt");
+		
+		assertEquals(dict.getWords(""), minimized.getWords(""));
+	}
+	
+	//SNAPSHOT
+	@Test
+	void snapshot_save_and_open(@TempDir Path folder) throws IOException {
+		String filename = folder.resolve("dico.bin").toString();
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		dict.insertWord("porte-cle");
+		dict.saveSnapshot(filename);
+		
+		LexicographicTree snapshot = LexicographicTree.openSnapshot(filename);
+		assertTrue(snapshot.isPacked());
+		assertEquals(dict.size(), snapshot.size());
+		assertEquals(dict.getWords(""), snapshot.getWords(""));
+		assertEquals(dict.getWordsOfLength(3), snapshot.getWordsOfLength(3));
+		assertTrue(snapshot.containsWord("porte-cle"));
+		assertFalse(snapshot.containsWord("porte"));
+		assertTrue(snapshot.existPrefix("port"));
+	}
+	
+	@Test
+	void snapshot_of_minimized_dictionary(@TempDir Path folder) throws IOException {
+		String filename = folder.resolve("dico.bin").toString();
+		LexicographicTree dict = LexicographicTree.minimize(Arrays.asList(WORDS));
+		dict.saveSnapshot(filename);
+		
+		assertArrayEquals(WORDS, LexicographicTree.openSnapshot(filename).getWords("").toArray());
+	}
+	
+	@Test
+	void snapshot_invalid_file() {
+		assertThrows(IOException.class, () -> LexicographicTree.openSnapshot("mots/dictionnaire_test.txt"));
+		assertThrows(IOException.class, () -> LexicographicTree.openSnapshot("francis"));
+	}
+	
+	//PARALLEL LOAD
+	@Test
+	void loadParallel_same_tree() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		LexicographicTree parallel = LexicographicTree.loadParallel("mots/dictionnaire_FR_sans_accents.txt");
+		
+		assertEquals(dict.size(), parallel.size());
+		assertEquals(dict.getWords(""), parallel.getWords(""));
+		assertTrue(parallel.containsWord("a-cote"));
+		
+		parallel.insertWord("zzz");
+		assertEquals(dict.size() + 1, parallel.size());
+	}
+	
+	@Test
+	void loadParallel_small_file() {
+		LexicographicTree parallel = LexicographicTree.loadParallel("mots/dictionnaire_test.txt", new ForkJoinPool(2));
+		
+		assertEquals(5, parallel.size());
+		assertTrue(parallel.containsWord("francis"));
+		assertEquals("PAPA", parallel.giveCompatibleWord("LOLO"));
+	}
+	
+	@Test
+	void loadParallel_same_charset_as_constructor(@TempDir Path folder) throws IOException {
+		Path file = folder.resolve("mots.txt");
+		Files.write(file, Arrays.asList("maison", "été", "café", "arbre"), StandardCharsets.UTF_8);
+		
+		LexicographicTree dict = new LexicographicTree(file.toString());
+		LexicographicTree parallel = LexicographicTree.loadParallel(file.toString());
+		assertEquals(dict.size(), parallel.size());
+		assertEquals(dict.getWords(""), parallel.getWords(""));
+	}
+	
+	@Test
+	void loadParallel_invalid_filename() {
+		assertEquals(0, LexicographicTree.loadParallel("francis").size());
+	}
+	
+	//STREAM
+	@Test
+	void iterateWords_same_as_getWords() {
+		Iterator<String> iterator = DICT.iterateWords("");
+		for (String word : WORDS) {
+			assertTrue(iterator.hasNext());
+			assertEquals(word, iterator.next());
+		}
+		assertFalse(iterator.hasNext());
+		
+		assertFalse(DICT.iterateWords("x").hasNext());
+		assertFalse(DICT.iterateWords("ého@").hasNext());
+	}
+	
+	@Test
+	void streamWords_prefix() {
+		assertArrayEquals(new String[] {"bu", "bus", "but"}, DICT.streamWords("bu").toArray());
+		assertArrayEquals(new String[] {"aide", "as"}, DICT.streamWords("").limit(2).toArray());
+	}
+	
+	@Test
+	void streamWordsOfLength_same_as_getWordsOfLength() {
+		for (int n = -1; n < 6; n++) {
+			assertEquals(DICT.getWordsOfLength(n), DICT.streamWordsOfLength(n).collect(Collectors.toList()));
+		}
+	}
+	
+	@Test
+	void streamWords_parallel() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		
+		assertEquals(dict.getWords(""), dict.streamWords("").parallel().collect(Collectors.toList()));
+		assertEquals(dict.getWords("ab"), dict.streamWords("ab").parallel().collect(Collectors.toList()));
+		assertEquals(dict.getWordsOfLength(7), dict.streamWordsOfLength(7).parallel().collect(Collectors.toList()));
+	}
+	
+	@Test
+	void spliterator_split() {
+		Spliterator<String> right = DICT.spliterator("");
+		Spliterator<String> left = right.trySplit();
+		assertNotNull(left);
+		
+		List<String> words = new ArrayList<>();
+		left.forEachRemaining(words::add);
+		right.forEachRemaining(words::add);
+		assertArrayEquals(WORDS, words.toArray());
+		
+		Spliterator<String> single = DICT.spliterator("aide");
+		assertNull(single.trySplit());
+	}
+	
+	//LENGTHS
+	@Test
+	void getWordsByLength_single_pass() {
+		Map<Integer, List<String>> words = DICT.getWordsByLength();
+		
+		assertArrayEquals(new Integer[] {2, 3, 4}, words.keySet().toArray());
+		for (int length : words.keySet()) {
+			assertEquals(DICT.getWordsOfLength(length), words.get(length));
+		}
+	}
+	
+	@Test
+	void getWordsOfLength_very_long_words() {
+		LexicographicTree dict = new LexicographicTree();
+		String longWord = "a".repeat(70);
+		dict.insertWord(longWord);
+		dict.insertWord(longWord + "b");
+		dict.insertWord("ab");
+		
+		assertArrayEquals(new String[] {longWord}, dict.getWordsOfLength(70).toArray());
+		assertArrayEquals(new String[] {longWord + "b"}, dict.getWordsOfLength(71).toArray());
+		assertEquals(0, dict.getWordsOfLength(69).size());
+		assertArrayEquals(new String[] {"ab"}, dict.getWordsOfLength(2).toArray());
+	}
+	
+	@Test
+	void getWordsOfLength_dictionary_total() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		LexicographicTree minimized = LexicographicTree.loadMinimized("mots/dictionnaire_FR_sans_accents.txt");
+		LexicographicTree parallel = LexicographicTree.loadParallel("mots/dictionnaire_FR_sans_accents.txt");
+		int total = 0;
+		
+		for (int n = 0; n <= 28; n++) {
+			List<String> words = dict.getWordsOfLength(n);
+			assertEquals(words, minimized.getWordsOfLength(n));
+			assertEquals(words, parallel.getWordsOfLength(n));
+			assertEquals(words, dict.streamWordsOfLength(n).collect(Collectors.toList()));
+			total += words.size();
+		}
+		assertEquals(dict.size(), total);
+		assertEquals(dict.getWordsByLength(), minimized.getWordsByLength());
+	}
+	
+	@Test
+	void getWordsOfLength_packed_tree_prunes() {
+		LexicographicTree dict = new LexicographicTree();
+		LexicographicTree packed = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+			packed.insertWord(word);
+		}
+		packed.insertWord("bateau");
+		packed.pack();
+		assertTrue(packed.removeWord("bateau"));
+		
+		assertSameLengthMasks(dict.cursor(), packed.cursor());
+		assertSameLengthMasks(dict.cursor(), dict.freeze().cursor());
+		TrieCursor cursor = packed.cursor();
+		assertNotEquals(-1L, cursor.lengthMask());
+		assertTrue(cursor.advance('b'));
+		assertFalse(cursor.hasWordAt(5));
+		assertTrue(cursor.hasWordAt(2));
+		for (int n = 0; n <= 6; n++) {
+			assertEquals(dict.getWordsOfLength(n), packed.getWordsOfLength(n));
+		}
+	}
+	
+	/**
+	 * Vérifie que deux arbres qui contiennent les mêmes mots ont les mêmes masques de longueurs sur chaque noeud
+	 */
+	static void assertSameLengthMasks(TrieCursor expected, TrieCursor actual) {
+		assertEquals(expected.lengthMask(), actual.lengthMask(), "masque à la profondeur " + expected.depth());
+		for (int i = expected.nextChild(0); i >= 0; i = expected.nextChild(i + 1)) {
+			expected.advanceIndex(i);
+			assertTrue(actual.advanceIndex(i));
+			assertSameLengthMasks(expected, actual);
+			actual.retreat();
+			expected.retreat();
+		}
+		assertEquals(expected.wordCount(), actual.wordCount());
+	}
+	
+	//COUNTS
+	@Test
+	void countWords_prefixes() {
+		assertEquals(WORDS.length, DICT.countWords(""));
+		assertEquals(4, DICT.countWords("a"));
+		assertEquals(2, DICT.countWords("au"));
+		assertEquals(3, DICT.countWords("bu"));
+		assertEquals(0, DICT.countWords("z"));
+		assertEquals(0, DICT.countWords("butte"));
+	}
+	
+	@Test
+	void rank_and_select() {
+		for (int i = 0; i < WORDS.length; i++) {
+			assertEquals(i, DICT.rank(WORDS[i]));
+			assertEquals(WORDS[i], DICT.select(i));
+		}
+		
+		assertEquals(0, DICT.rank(""));
+		assertEquals(0, DICT.rank("a"));
+		assertEquals(4, DICT.rank("az"));
+		assertEquals(7, DICT.rank("c"));
+		assertEquals(WORDS.length, DICT.rank("zz"));
+		assertThrows(IndexOutOfBoundsException.class, () -> DICT.select(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> DICT.select(WORDS.length));
+	}
+	
+	@Test
+	void counts_ignore_duplicates() {
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("");
+		dict.insertWord("bus");
+		dict.insertWord("bus");
+		dict.insertWord("bu");
+		
+		assertEquals(3, dict.countWords(""));
+		assertEquals(2, dict.countWords("bu"));
+		assertEquals("", dict.select(0));
+		assertEquals("bus", dict.select(2));
+	}
+	
+	@Test
+	void counts_all_representations() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree dict = new LexicographicTree(filename);
+		LexicographicTree packed = new LexicographicTree(filename);
+		packed.pack();
+		LexicographicTree[] others = {packed, LexicographicTree.loadMinimized(filename), LexicographicTree.loadParallel(filename)};
+		List<String> words = dict.getWords("");
+		
+		for (LexicographicTree other : others) {
+			assertEquals(dict.size(), other.countWords(""));
+			assertEquals(dict.getWords("pro").size(), other.countWords("pro"));
+			for (int i = 0; i < words.size(); i += 997) {
+				assertEquals(words.get(i), other.select(i));
+				assertEquals(i, other.rank(words.get(i)));
+			}
+		}
+		assertEquals(words.size(), dict.countWords(""));
+	}
+	
+	@Test
+	void spliterator_exact_size() {
+		Spliterator<String> all = DICT.spliterator("");
+		assertTrue(all.hasCharacteristics(Spliterator.SIZED));
+		assertEquals(WORDS.length, all.getExactSizeIfKnown());
+		
+		Spliterator<String> left = all.trySplit();
+		assertEquals(WORDS.length, left.getExactSizeIfKnown() + all.getExactSizeIfKnown());
+		assertEquals(left.getExactSizeIfKnown(), left.estimateSize());
+		List<String> words = new ArrayList<>();
+		left.forEachRemaining(words::add);
+		assertEquals(left.estimateSize(), words.size());
+		
+		assertEquals(3, DICT.spliterator("bu").getExactSizeIfKnown());
+		assertEquals(0, DICT.spliterator("zz").getExactSizeIfKnown());
+		assertEquals(-1, DICT.streamWordsOfLength(3).spliterator().getExactSizeIfKnown());
+	}
+	
+	//CHARSEQUENCE
+	@Test
+	void containsWord_char_sequences() {
+		StringBuilder sb = new StringBuilder("bu");
+		assertTrue(DICT.containsWord(sb));
+		assertTrue(DICT.existPrefix(sb));
+		sb.append('s');
+		assertTrue(DICT.containsWord(sb));
+		sb.append('e');
+		assertFalse(DICT.containsWord(sb));
+		assertFalse(DICT.existPrefix(sb));
+		assertFalse(DICT.containsWord(new StringBuilder("A")));
+		assertFalse(DICT.existPrefix(new StringBuilder("é")));
+	}
+	
+	@Test
+	void containsWord_char_array() {
+		char[] buf = "xxbutexx".toCharArray();
+		assertTrue(DICT.containsWord(buf, 2, 3));
+		assertTrue(DICT.containsWord(buf, 2, 2));
+		assertFalse(DICT.containsWord(buf, 2, 4));
+		assertTrue(DICT.existPrefix(buf, 2, 0));
+		assertFalse(DICT.existPrefix(buf, 0, 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> DICT.containsWord(buf, 6, 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> DICT.existPrefix(buf, -1, 2));
+	}
+	
+	@Test
+	void containsWord_char_array_packed() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		dict.pack();
+		char[] buf = "ete".toCharArray();
+		
+		assertTrue(dict.containsWord(buf, 0, 3));
+		assertTrue(dict.containsWord(buf, 0, 2));
+		assertFalse(dict.containsWord(buf, 1, 2));
+		assertTrue(dict.existPrefix(new StringBuilder("au")));
+		assertFalse(dict.existPrefix(buf, 1, 2));
+	}
+	
+	//CURSOR
+	@Test
+	void cursor_walk() {
+		TrieCursor cursor = DICT.cursor();
+		assertEquals(0, cursor.depth());
+		assertFalse(cursor.isWord());
+		assertTrue(cursor.hasChildren());
+		
+		assertTrue(cursor.advance('b'));
+		assertTrue(cursor.advance('u'));
+		assertTrue(cursor.isWord());
+		assertTrue(cursor.hasChildren());
+		assertFalse(cursor.advance('x'));
+		assertEquals(2, cursor.depth());
+		
+		assertTrue(cursor.advance('s'));
+		assertTrue(cursor.isWord());
+		assertFalse(cursor.hasChildren());
+		cursor.retreat();
+		assertTrue(cursor.advance('t'));
+		assertTrue(cursor.isWord());
+		
+		cursor.retreat();
+		cursor.retreat();
+		cursor.retreat();
+		assertThrows(IllegalStateException.class, () -> cursor.retreat());
+	}
+	
+	@Test
+	void cursor_copy_and_mark() {
+		TrieCursor cursor = DICT.cursor();
+		cursor.advance('a');
+		int mark = cursor.mark();
+		TrieCursor copy = cursor.copy();
+		
+		cursor.advance('u');
+		cursor.advance('x');
+		assertTrue(cursor.isWord());
+		assertEquals(1, copy.depth());
+		assertTrue(copy.advance('i'));
+		
+		cursor.reset(mark);
+		assertEquals(1, cursor.depth());
+		assertTrue(cursor.advance('s'));
+		assertTrue(cursor.isWord());
+		assertThrows(IllegalArgumentException.class, () -> cursor.reset(5));
+	}
+	
+	@Test
+	void cursor_packed() {
+		LexicographicTree dict = LexicographicTree.minimize(Arrays.asList(WORDS));
+		TrieCursor cursor = dict.cursor();
+		
+		for (char c : "ete".toCharArray()) {
+			assertTrue(cursor.advance(c));
+		}
+		assertTrue(cursor.isWord());
+		assertFalse(cursor.hasChildren());
+		TrieCursor copy = cursor.copy();
+		cursor.reset(0);
+		assertFalse(cursor.isWord());
+		assertTrue(copy.isWord());
+		assertEquals(3, copy.depth());
+	}
+	
+	//FUZZY
+	@Test
+	void fuzzySearch_ranked() {
+		assertEquals(Arrays.asList("bus", "bu", "but"), DICT.fuzzySearch("bus", 1));
+		assertEquals(Arrays.asList("ete", "et"), DICT.fuzzySearch("ete", 1));
+		assertEquals(Arrays.asList("as", "au"), DICT.fuzzySearch("a", 1));
+		assertEquals(Arrays.asList("as", "au", "aux", "bu", "et"), DICT.fuzzySearch("a", 2));
+		assertEquals(0, DICT.fuzzySearch("zzzz", 1).size());
+		assertEquals(Arrays.asList("aide"), DICT.fuzzySearch("aide", 0));
+		assertThrows(IllegalArgumentException.class, () -> DICT.fuzzySearch("aide", -1));
+	}
+	
+	@Test
+	void fuzzySearch_dictionary() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		List<String> expected = new ArrayList<>();
+		for (int d = 0; d <= 2; d++) {
+			for (String word : dict.getWords("")) {
+				if (levenshtein(word, "maisonette") == d) {
+					expected.add(word);
+				}
+			}
+		}
+		
+		List<String> found = dict.fuzzySearch("maisonette", 2);
+		assertEquals(expected, found);
+		assertEquals("maisonnette", found.get(0));
+		dict.pack();
+		assertEquals(expected, dict.fuzzySearch("maisonette", 2));
+	}
+	
+	private static int levenshtein(String a, String b) {
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+	
+	//PATTERN
+	@Test
+	void getWordsMatching_wildcards() {
+		assertEquals(Arrays.asList("bus", "but"), DICT.getWordsMatching("bu?"));
+		assertEquals(Arrays.asList("aux", "bus", "but", "ete"), DICT.getWordsMatching("???"));
+		assertEquals(Arrays.asList("au", "aux", "bu", "bus", "but"), DICT.getWordsMatching("[ab]u*"));
+		assertEquals(Arrays.asList("as", "bus"), DICT.getWordsMatching("*s"));
+		assertEquals(Arrays.asList("aide", "ete"), DICT.getWordsMatching("*e"));
+		assertEquals(Arrays.asList("aux", "bus", "but"), DICT.getWordsMatching("[a-c]?[s-x]"));
+		assertEquals(Arrays.asList(WORDS), DICT.getWordsMatching("**"));
+		assertEquals(Arrays.asList("et"), DICT.getWordsMatching("et"));
+		assertEquals(0, DICT.getWordsMatching("").size());
+	}
+	
+	@Test
+	void getWordsMatching_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> DICT.getWordsMatching("a[bc"));
+		assertThrows(IllegalArgumentException.class, () -> DICT.getWordsMatching("[]"));
+		assertThrows(IllegalArgumentException.class, () -> DICT.streamWordsMatching("A?"));
+		assertThrows(IllegalArgumentException.class, () -> DICT.getWordsMatching("?".repeat(64)));
+	}
+	
+	@Test
+	void getWordsMatching_dictionary() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		String[][] patterns = {{"c?a*on", "c.a.*on"}, {"?????e", ".....e"}, {"*ment", ".*ment"},
+				{"[xyz]*[aeiou]", "[xyz].*[aeiou]"}, {"a*b*c*d", "a.*b.*c.*d"}};
+		
+		for (String[] pattern : patterns) {
+			List<String> expected = dict.streamWords("").filter(word -> word.matches(pattern[1])).collect(Collectors.toList());
+			assertEquals(expected, dict.getWordsMatching(pattern[0]), pattern[0]);
+			assertEquals(expected, dict.streamWordsMatching(pattern[0]).collect(Collectors.toList()), pattern[0]);
+		}
+		
+		dict.pack();
+		assertEquals(dict.getWordsOfLength(6).stream().filter(word -> word.endsWith("e")).collect(Collectors.toList()),
+				dict.getWordsMatching("?????e"));
+		assertEquals(Arrays.asList("maison", "maisonnee"), dict.streamWordsMatching("maison*").limit(2).collect(Collectors.toList()));
+	}
+	
+	//SORTED BUILD
+	@Test
+	void fromSorted_same_as_insert() {
+		LexicographicTree dict = LexicographicTree.fromSorted(Arrays.asList(WORDS).iterator(), true);
+		
+		assertEquals(WORDS.length, dict.size());
+		assertEquals(Arrays.asList(WORDS), dict.getWords(""));
+		assertEquals(DICT.getWordsOfLength(3), dict.getWordsOfLength(3));
+		assertEquals(3, dict.countWords("bu"));
+		dict.insertWord("bute");
+		assertTrue(dict.containsWord("bute"));
+		assertEquals(WORDS.length + 1, dict.size());
+	}
+	
+	@Test
+	void fromSorted_duplicates_prefixes_and_cleaning() {
+		LexicographicTree dict = LexicographicTree.fromSorted(Arrays.asList("", "a-b", "a'c", "ab", "ab", "ab1", "abc").stream(), false);
+		
+		assertEquals(5, dict.size());
+		assertEquals(Arrays.asList("", "ab", "abc", "a-b", "a'c"), dict.getWords(""));
+		assertThrows(IllegalArgumentException.class, () -> LexicographicTree.fromSorted(Arrays.asList("bu", "ca", "bus").iterator(), true));
+		assertThrows(IllegalArgumentException.class, () -> LexicographicTree.fromSorted(Arrays.asList("Bu").iterator(), true));
+	}
+	
+	@Test
+	void loadSorted_dictionary() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree dict = new LexicographicTree(filename);
+		LexicographicTree sorted = LexicographicTree.loadSorted(filename, true);
+		
+		assertEquals(dict.size(), sorted.size());
+		assertEquals(dict.getWords(""), sorted.getWords(""));
+		assertEquals(dict.getWordsByLength(), sorted.getWordsByLength());
+		assertEquals(dict.rank("maison"), sorted.rank("maison"));
+		assertEquals(dict.size(), LexicographicTree.loadSorted(filename, false).size());
+	}
+	
+	//REMOVE
+	@Test
+	void giveCompatibleWord_after_remove_and_insert() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : new String[] {"papa", "mama", "tata"}) {
+			dict.insertWord(word);
+		}
+		assertEquals("MAMA", dict.giveCompatibleWord("xyxy"));
+		
+		assertTrue(dict.removeWord("papa"));
+		dict.insertWord("papa");
+		dict.insertWord("baba");
+		assertEquals("BABA", dict.giveCompatibleWord("xyxy"));
+		assertEquals("PAPA", dict.giveCompatibleWord("xyxy"));
+		assertEquals("TATA", dict.giveCompatibleWord("xyxy"));
+		assertNull(dict.giveCompatibleWord("xyxy"));
+	}
+	
+	@Test
+	void removeWord_General() {
+		LexicographicTree dict = LexicographicTree.fromSorted(Arrays.asList(WORDS).iterator(), true);
+		
+		assertTrue(dict.removeWord("bus"));
+		assertFalse(dict.removeWord("bus"));
+		assertFalse(dict.removeWord("b"));
+		assertFalse(dict.removeWord("zut"));
+		assertFalse(dict.containsWord("bus"));
+		assertTrue(dict.containsWord("bu"));
+		assertTrue(dict.containsWord("but"));
+		assertEquals(WORDS.length - 1, dict.size());
+		assertEquals(2, dict.countWords("bu"));
+		
+		assertTrue(dict.removeWord("aide"));
+		assertFalse(dict.existPrefix("ai"));
+		assertEquals(Arrays.asList("aux", "but", "ete"), dict.getWordsOfLength(3));
+		assertEquals(0, dict.getWordsOfLength(4).size());
+		
+		assertTrue(dict.removeWord("et"));
+		assertTrue(dict.containsWord("ete"));
+		assertTrue(dict.existPrefix("et"));
+		assertEquals(Arrays.asList("as", "au", "bu"), dict.getWordsOfLength(2));
+	}
+	
+	@Test
+	void removeWord_prunes_nodes() {
+		TrieNode root = new TrieNode();
+		LexicographicTree.insert(root, "ab", 0);
+		LexicographicTree.insert(root, "az", 0);
+		LexicographicTree.insert(root, "abc", 0);
+		
+		assertTrue(LexicographicTree.remove(root, "az"));
+		assertEquals(2, root.get('a').getLinks().length);
+		assertTrue(LexicographicTree.remove(root, "abc"));
+		assertNull(root.get('a').get('b').getLinks());
+		assertTrue(LexicographicTree.remove(root, "ab"));
+		assertNull(root.getLinks());
+		assertEquals(0, root.getCount());
+		assertEquals(0, root.getLengths());
+	}
+	
+	@Test
+	void removeWord_churn_keeps_links_small() {
+		LexicographicTree dict = new LexicographicTree();
+		for (int round = 0; round < 3; round++) {
+			for (char c = 'a'; c <= 'z'; c++) {
+				dict.insertWord("x" + c + "y");
+			}
+			for (char c = 'a'; c <= 'z'; c++) {
+				assertTrue(dict.removeWord("x" + c + "y"));
+			}
+		}
+		
+		assertEquals(0, dict.size());
+		assertFalse(dict.existPrefix("x"));
+		assertEquals(0, dict.getWords("").size());
+	}
+	
+	@Test
+	void removeWord_packed_and_compact() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree dict = new LexicographicTree(filename);
+		dict.pack();
+		List<String> words = dict.getWords("");
+		List<String> kept = new ArrayList<>();
+		
+		for (int i = 0; i < words.size(); i++) {
+			if (i % 3 == 0) {
+				assertTrue(dict.removeWord(words.get(i)));
+			} else {
+				kept.add(words.get(i));
+			}
+		}
+		assertEquals(kept.size(), dict.size());
+		assertEquals(kept, dict.getWords(""));
+		assertEquals(kept.size(), dict.countWords(""));
+		dict.compact();
+		assertEquals(kept, dict.getWords(""));
+		assertEquals(kept.get(1000), dict.select(1000));
+		
+		assertThrows(UnsupportedOperationException.class,
+				() -> LexicographicTree.minimize(Arrays.asList(WORDS)).removeWord("bu"));
+	}
+	
+	@Test
+	void compact_reclaims_slots() {
+		TrieNode root = new TrieNode();
+		for (String word : WORDS) {
+			LexicographicTree.insert(root, word, 0);
+		}
+		DoubleArrayTrie trie = DoubleArrayTrie.build(root);
+		
+		assertTrue(trie.remove("aide"));
+		assertTrue(trie.remove("bus"));
+		assertFalse(trie.remove("bus"));
+		assertEquals(4, trie.freeSlots());
+		
+		DoubleArrayTrie compacted = DoubleArrayTrie.build(new TrieCursor.OfPacked(trie));
+		assertEquals(0, compacted.freeSlots());
+		assertTrue(compacted.capacity() <= trie.capacity());
+		assertEquals(WORDS.length - 2, compacted.wordCount(compacted.root()));
+	}
+	
+	//WEIGHTS
+	@Test
+	void topK_weighted_words() {
+		LexicographicTree dict = new LexicographicTree();
+		for (int i = 0; i < WORDS.length; i++) {
+			dict.insertWord(WORDS[i], i);
+		}
+		dict.insertWord("bu", 20);
+		dict.insertWord("aux");
+		
+		assertEquals(Arrays.asList("bu", "ete", "et"), dict.topK("", 3));
+		assertEquals(Arrays.asList("aux", "au", "as", "aide"), dict.topK("a", 5));
+		assertEquals(Arrays.asList("bu", "but"), dict.topK("bu", 2));
+		assertEquals(20, dict.getWeight("bu"));
+		assertEquals(3, dict.getWeight("aux"));
+		assertEquals(-1, dict.getWeight("b"));
+		assertEquals(0, dict.topK("x", 3).size());
+		assertEquals(0, dict.topK("", 0).size());
+		assertThrows(IllegalArgumentException.class, () -> dict.insertWord("bu", -1));
+		
+		dict.insertWord("bu", 0);
+		assertEquals(Arrays.asList("ete", "et"), dict.topK("", 2));
+		dict.removeWord("ete");
+		assertEquals(Arrays.asList("et", "but"), dict.topK("", 2));
+	}
+	
+	@Test
+	void topK_unweighted_in_alphabetical_order() {
+		assertEquals(Arrays.asList(WORDS).subList(0, 5), DICT.topK("", 5));
+		assertEquals(Arrays.asList(WORDS), LexicographicTree.minimize(Arrays.asList(WORDS)).topK("", 100));
+	}
+	
+	@Test
+	void loadWeighted_file(@TempDir Path folder) throws IOException {
+		Path file = folder.resolve("freq.txt");
+		Files.write(file, Arrays.asList("chat\t12", "chien\t30", "cheval", "chameau\tbeaucoup", "chou\t-4", "chaton\t 7"));
+		LexicographicTree dict = LexicographicTree.loadWeighted(file.toString());
+		
+		assertEquals(4, dict.size());
+		assertEquals(Arrays.asList("chien", "chat", "chaton", "cheval"), dict.topK("ch", 10));
+		assertEquals(0, dict.getWeight("cheval"));
+	}
+	
+	@Test
+	void topK_dictionary_matches_sort() {
+		List<String> words = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt").getWords("");
+		LexicographicTree dict = new LexicographicTree();
+		Random random = new Random(42);
+		for (String word : words) {
+			dict.insertWord(word, random.nextInt(1000));
+		}
+		
+		for (String prefix : new String[] {"", "a", "pro", "maison"}) {
+			List<String> expected = dict.getWords(prefix);
+			expected.sort((a, b) -> Integer.compare(dict.getWeight(b), dict.getWeight(a)));
+			assertEquals(expected.subList(0, Math.min(10, expected.size())), dict.topK(prefix, 10), prefix);
+		}
+		
+		List<String> before = dict.topK("re", 25);
+		dict.pack();
+		assertEquals(before, dict.topK("re", 25));
+		dict.removeWord(before.get(0));
+		assertEquals(before.subList(1, 25), dict.topK("re", 24));
+	}
+	
+	@Test
+	void topK_many_ties_matches_sort() {
+		List<String> words = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt").getWords("ma");
+		LexicographicTree dict = new LexicographicTree();
+		Random random = new Random(15);
+		for (String word : words) {
+			dict.insertWord(word, random.nextInt(4));
+		}
+		
+		// getWords est dans l'ordre de l'arbre et le tri est stable : à poids égal, l'ordre de getWords est gardé
+		List<String> expected = dict.getWords("");
+		expected.sort((a, b) -> Integer.compare(dict.getWeight(b), dict.getWeight(a)));
+		for (int k : new int[] {1, 7, 100, 2000, expected.size() + 10}) {
+			assertEquals(expected.subList(0, Math.min(k, expected.size())), dict.topK("", k), "k = " + k);
+		}
+		assertEquals(expected.stream().filter(w -> w.startsWith("mai")).limit(30).collect(Collectors.toList()), dict.topK("mai", 30));
+	}
+	
+	//RACK
+	@Test
+	void wordsFromLetters_small() {
+		assertEquals(Arrays.asList("as", "au", "bu", "bus"), DICT.wordsFromLetters("subaz"));
+		assertEquals(4, DICT.countWordsFromLetters("SUBAZ"));
+		assertEquals(Arrays.asList("as", "au", "bu", "et", "ete"), DICT.wordsFromLetters("??e"));
+		assertEquals(Arrays.asList("et", "ete"), DICT.wordsFromLetters("tee"));
+		assertEquals(0, DICT.wordsFromLetters("").size());
+		assertThrows(IllegalArgumentException.class, () -> DICT.wordsFromLetters("ab1"));
+	}
+	
+	@Test
+	void wordsFromLetters_dictionary() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		List<String> words = dict.getWords("");
+		
+		for (String rack : new String[] {"tablier", "anticonstitu", "ecr??", "?eaurstnilo?mp"}) {
+			List<String> expected = new ArrayList<>();
+			for (String word : words) {
+				if (!word.isEmpty() && canForm(word, rack)) {
+					expected.add(word);
+				}
+			}
+			assertEquals(expected, dict.wordsFromLetters(rack), rack);
+			assertEquals(expected.size(), dict.countWordsFromLetters(rack), rack);
+		}
+	}
+	
+	private static boolean canForm(String word, String rack) {
+		int[] letters = new int[128];
+		int blanks = 0;
+		for (char c : rack.toCharArray()) {
+			if (c == '?') {
+				blanks++;
+			} else {
+				letters[c]++;
+			}
+		}
+		for (char c : word.toCharArray()) {
+			if (c < 128 && letters[c] > 0) {
+				letters[c]--;
+			} else if (blanks-- == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	//BLOOM
+	@Test
+	void bloomFilter_keeps_answers_exact() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		assertEquals(0, dict.bloomFilterBytes());
+		dict.enableBloomFilter(0.01);
+		assertTrue(dict.bloomFilterBytes() > 0);
+		
+		dict.insertWord("zebre");
+		for (String word : WORDS) {
+			assertTrue(dict.containsWord(word));
+			assertTrue(dict.containsWord(word.toCharArray(), 0, word.length()));
+		}
+		assertTrue(dict.containsWord("zebre"));
+		assertFalse(dict.containsWord("bux"));
+		assertTrue(dict.removeWord("bus"));
+		assertFalse(dict.containsWord("bus"));
+		
+		dict.disableBloomFilter();
+		assertEquals(0, dict.bloomFilterBytes());
+		assertThrows(IllegalArgumentException.class, () -> dict.enableBloomFilter(0));
+		assertThrows(IllegalArgumentException.class, () -> dict.enableBloomFilter(1.5));
+	}
+	
+	@Test
+	void bloomFilter_false_positive_rate() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree dict = new LexicographicTree(filename, 0.01);
+		List<String> words = dict.getWords("");
+		WordBloomFilter filter = new WordBloomFilter(words.size(), 0.01);
+		words.forEach(filter::add);
+		
+		int falsePositives = 0;
+		for (String word : words) {
+			assertTrue(dict.containsWord(word));
+			assertFalse(dict.containsWord(word + "xx"));
+			if (filter.mightContain(word + "xx")) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < words.size() * 0.02, "Faux positifs : " + falsePositives);
+		assertTrue(dict.bloomFilterBytes() < words.size() * 2);
+		
+		dict.pack();
+		assertTrue(dict.containsWord("maison"));
+		assertFalse(dict.containsWord("maisonxx"));
+	}
+	
+	//OFF HEAP
+	@Test
+	void offHeap_same_answers_as_heap() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree heap = new LexicographicTree(filename);
+		LexicographicTree offHeap = LexicographicTree.loadOffHeap(filename);
+		assertTrue(offHeap.isOffHeap());
+		assertFalse(heap.isOffHeap());
+		assertTrue(offHeap.offHeapBytes() > 0);
+		assertEquals(heap.size(), offHeap.size());
+		
+		assertEquals(heap.getWords(""), offHeap.getWords(""));
+		assertEquals(heap.getWords("mais"), offHeap.getWords("mais"));
+		assertEquals(heap.getWordsOfLength(7), offHeap.getWordsOfLength(7));
+		assertEquals(heap.countWords("re"), offHeap.countWords("re"));
+		assertEquals(heap.rank("maison"), offHeap.rank("maison"));
+		assertEquals(heap.getWordsMatching("m?is*n"), offHeap.getWordsMatching("m?is*n"));
+		assertEquals(heap.wordsFromLetters("maison"), offHeap.wordsFromLetters("maison"));
+		assertTrue(offHeap.containsWord("maison"));
+		assertFalse(offHeap.containsWord("maisonxx"));
+		assertTrue(offHeap.existPrefix("mais"));
+	}
+	
+	@Test
+	void offHeap_insert_remove_and_weights() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		dict.insertWord("zebre", 7);
+		dict.moveOffHeap();
+		assertTrue(dict.isOffHeap());
+		assertTrue(dict.isPacked());
+		assertEquals(Arrays.asList(WORDS), dict.getWords("").subList(0, WORDS.length));
+		assertEquals(7, dict.getWeight("zebre"));
+		
+		dict.insertWord("aa", 9);
+		dict.insertWord("zebu");
+		assertEquals(WORDS.length + 3, dict.size());
+		assertEquals(Arrays.asList("aa", "zebre"), dict.topK("", 2));
+		assertTrue(dict.containsWord("zebu"));
+		
+		assertTrue(dict.removeWord("aa"));
+		assertFalse(dict.removeWord("aa"));
+		assertFalse(dict.containsWord("aa"));
+		assertEquals(Arrays.asList("zebre", "aide"), dict.topK("", 2));
+		assertEquals(Arrays.asList("zebre", "zebu"), dict.getWords("z"));
+		assertEquals(2, dict.countWords("zeb"));
+		assertEquals(WORDS.length + 2, dict.size());
+	}
+	
+	@Test
+	void offHeap_grows_and_reuses_freed_nodes() {
+		OffHeapTrie trie = new OffHeapTrie(4);
+		List<String> words = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int n = 1 + random.nextInt(8); n > 0; n--) {
+				sb.append((char) ('a' + random.nextInt(26)));
+			}
+			if (trie.insert(sb)) {
+				words.add(sb.toString());
+			}
+		}
+		int nodes = trie.nodeCount();
+		long bytes = trie.byteSize();
+		assertEquals(words.size(), trie.wordCount(trie.root()));
+		
+		for (String word : words) {
+			assertTrue(trie.remove(word));
+		}
+		assertEquals(1, trie.nodeCount());
+		assertEquals(0, trie.wordCount(trie.root()));
+		
+		for (String word : words) {
+			assertTrue(trie.insert(word));
+		}
+		assertEquals(nodes, trie.nodeCount());
+		assertEquals(bytes, trie.byteSize());
+		assertThrows(IllegalArgumentException.class, () -> trie.insert("Maison"));
+	}
+	
+	//BYTE LOADER
+	@Test
+	void loadBytes_same_dictionary_as_reader() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree expected = new LexicographicTree(filename);
+		LexicographicTree dict = LexicographicTree.loadBytes(filename, StandardCharsets.UTF_8);
+		assertEquals(expected.size(), dict.size());
+		assertEquals(expected.getWords(""), dict.getWords(""));
+		assertEquals(expected.size(), LexicographicTree.loadBytes(filename, StandardCharsets.US_ASCII).size());
+		assertThrows(IllegalArgumentException.class, () -> LexicographicTree.loadBytes(filename, StandardCharsets.UTF_16));
+	}
+	
+	@Test
+	void loadBytes_decodes_and_cleans_inline(@TempDir Path folder) throws IOException {
+		Path file = folder.resolve("mots.txt");
+		byte[] utf8 = "été\r\nla-bas\rl'eau\n\nmaïs xx\nab".getBytes(StandardCharsets.UTF_8);
+		byte[] bytes = Arrays.copyOf(utf8, utf8.length + 2);
+		bytes[utf8.length] = (byte) 0xFF;
+		bytes[utf8.length + 1] = 'c';
+		Files.write(file, bytes);
+		
+		LexicographicTree dict = LexicographicTree.loadBytes(file.toString(), StandardCharsets.UTF_8);
+		assertEquals(6, dict.size());
+		for (String word : new String[] {"été", "la-bas", "l'eau", "", "maïsxx", "abc"}) {
+			assertTrue(dict.containsWord(word), word);
+		}
+		
+		LexicographicTree ascii = LexicographicTree.loadBytes(file.toString(), StandardCharsets.US_ASCII);
+		assertTrue(ascii.containsWord("t"));
+		assertTrue(ascii.containsWord("masxx"));
+		
+		Files.write(file, "été\nmaïs".getBytes(StandardCharsets.ISO_8859_1));
+		LexicographicTree latin1 = LexicographicTree.loadBytes(file.toString(), StandardCharsets.ISO_8859_1);
+		assertEquals(Arrays.asList("maïs", "été"), latin1.getWords(""));
+	}
+	
+	//STATS
+	@Test
+	void stats_same_shape_in_every_representation() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		TreeStats heap = dict.stats();
+		assertEquals(WORDS.length, heap.words());
+		assertEquals(heap.nodes() - 1, heap.usedSlots());
+		assertTrue(heap.slots() >= heap.usedSlots());
+		assertTrue(heap.estimatedBytes() > heap.nodes() * 32);
+		assertEquals(0, heap.offHeapBytes());
+		assertEquals(-1, heap.loadNanos());
+		assertNull(heap.loadError());
+		assertEquals(heap.nodes(), Arrays.stream(heap.fanOutHistogram()).sum());
+		assertEquals(heap.nodes(), Arrays.stream(heap.depthHistogram()).sum());
+		assertEquals(1, heap.depthHistogram()[0]);
+		assertEquals(4, heap.depthHistogram().length - 1);
+		
+		dict.pack();
+		TreeStats packed = dict.stats();
+		assertEquals(heap.nodes(), packed.nodes());
+		assertArrayEquals(heap.fanOutHistogram(), packed.fanOutHistogram());
+		assertArrayEquals(heap.depthHistogram(), packed.depthHistogram());
+		
+		dict.moveOffHeap();
+		TreeStats offHeap = dict.stats();
+		assertEquals(heap.nodes(), offHeap.nodes());
+		assertEquals(offHeap.estimatedBytes(), offHeap.offHeapBytes());
+		assertArrayEquals(heap.depthHistogram(), offHeap.depthHistogram());
+		
+		TreeStats minimized = LexicographicTree.minimize(Arrays.asList(WORDS)).stats();
+		assertTrue(minimized.nodes() < heap.nodes());
+		assertArrayEquals(heap.fanOutHistogram(), minimized.fanOutHistogram());
+	}
+	
+	@Test
+	void stats_report_load_time_and_errors(@TempDir Path folder) throws IOException {
+		TreeStats loaded = new LexicographicTree("mots/dictionnaire_test.txt").stats();
+		assertTrue(loaded.loadNanos() >= 0);
+		assertNull(loaded.loadError());
+		
+		String missing = folder.resolve("absent.txt").toString();
+		assertNotNull(new LexicographicTree(missing).stats().loadError());
+		assertNotNull(LexicographicTree.loadSorted(missing, false).stats().loadError());
+		assertNotNull(LexicographicTree.loadBytes(missing, StandardCharsets.UTF_8).stats().loadError());
+		
+		Path weighted = folder.resolve("poids.txt");
+		Files.write(weighted, Arrays.asList("maison\t3", "chat\tbeaucoup", "chien\t-2", "rat"));
+		TreeStats stats = LexicographicTree.loadWeighted(weighted.toString()).stats();
+		assertEquals(2, stats.words());
+		assertEquals(2, stats.skippedLines());
+	}
+	
+	//FREEZE
+	@Test
+	void freeze_makes_independent_immutable_snapshot() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		dict.insertWord("zebre", 4);
+		dict.enableBloomFilter(0.01);
+		LexicographicTree snapshot = dict.freeze();
+		assertTrue(snapshot.isFrozen());
+		assertFalse(dict.isFrozen());
+		assertSame(snapshot, snapshot.freeze());
+		
+		dict.insertWord("zebu");
+		assertTrue(dict.removeWord("bus"));
+		assertEquals(WORDS.length + 1, snapshot.size());
+		assertTrue(snapshot.containsWord("bus"));
+		assertFalse(snapshot.containsWord("zebu"));
+		assertEquals(4, snapshot.getWeight("zebre"));
+		assertTrue(snapshot.bloomFilterBytes() > 0);
+		
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.insertWord("zebu"));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.insertWord("zebu", 2));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.removeWord("bus"));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.moveOffHeap());
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.disableBloomFilter());
+		assertThrows(IllegalStateException.class, () -> dict.view());
+		
+		dict.moveOffHeap();
+		LexicographicTree offHeap = dict.freeze();
+		assertTrue(offHeap.isOffHeap());
+		dict.insertWord("bus");
+		assertFalse(offHeap.containsWord("bus"));
+		assertTrue(offHeap.containsWord("zebu"));
+	}
+	
+	@Test
+	void view_has_its_own_compatible_words() {
+		LexicographicTree snapshot = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt").freeze();
+		LexicographicTree first = snapshot.view();
+		LexicographicTree second = snapshot.view();
+		
+		String word = first.giveCompatibleWord("ABCDE");
+		assertNotNull(word);
+		assertEquals(word, second.giveCompatibleWord("ABCDE"));
+		assertNotEquals(word, first.giveCompatibleWord("ABCDE"));
+	}
+	
+	@Test
+	void freeze_keeps_length_pruning() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		DictionaryHolder holder = new DictionaryHolder(dict);
+		LexicographicTree offHeap = new LexicographicTree();
+		for (String word : WORDS) {
+			offHeap.insertWord(word);
+		}
+		offHeap.moveOffHeap();
+		
+		for (LexicographicTree snapshot : new LexicographicTree[] {dict.freeze(), holder.get(), holder.get().view(), offHeap.freeze()}) {
+			assertTrue(snapshot.isFrozen());
+			assertSameLengthMasks(dict.cursor(), snapshot.cursor());
+			
+			//Sous "a", aucun mot ne se termine 4 lettres plus bas : le sous-arbre est élagué
+			TrieCursor cursor = snapshot.cursor();
+			assertTrue(cursor.advance('a'));
+			assertFalse(cursor.hasWordAt(4));
+			assertTrue(cursor.hasWordAt(3));
+			for (int n = 0; n <= 5; n++) {
+				assertEquals(dict.getWordsOfLength(n), snapshot.getWordsOfLength(n));
+			}
+		}
+	}
+	
+	//SUFFIX
+	@Test
+	void getWordsEndingWith_with_and_without_index() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		assertFalse(dict.hasSuffixIndex());
+		assertEquals(Arrays.asList("as", "bus"), dict.getWordsEndingWith("s"));
+		List<String> withoutIndex = dict.getWordsEndingWith("u");
+		
+		dict.enableSuffixIndex();
+		assertTrue(dict.hasSuffixIndex());
+		assertEquals(withoutIndex, dict.getWordsEndingWith("u"));
+		assertEquals(Arrays.asList("au", "bu"), dict.getWordsEndingWith("u"));
+		assertEquals(Arrays.asList("as", "bus"), dict.getWordsEndingWith("s"));
+		assertEquals(Arrays.asList("but", "et"), dict.getWordsEndingWith("t"));
+		assertEquals(dict.getWords(""), dict.getWordsEndingWith(""));
+		assertTrue(dict.getWordsEndingWith("z").isEmpty());
+		
+		dict.insertWord("bateau");
+		assertTrue(dict.removeWord("bu"));
+		assertEquals(Arrays.asList("au", "bateau"), dict.getWordsEndingWith("au"));
+		assertEquals(Arrays.asList("bateau"), dict.getWords("b", "u"));
+		assertEquals(Arrays.asList("bus", "but"), dict.getWords("bu", ""));
+		assertEquals(Arrays.asList("aide"), dict.getWords("a", "e"));
+		
+		LexicographicTree snapshot = dict.freeze();
+		dict.insertWord("gateau");
+		assertEquals(Arrays.asList("au", "bateau"), snapshot.getWordsEndingWith("au"));
+		assertEquals(Arrays.asList("au", "bateau", "gateau"), dict.getWordsEndingWith("au"));
+	}
+	
+	@Test
+	void getWordsEndingWith_same_as_scan() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree dict = new LexicographicTree(filename);
+		List<String> all = dict.getWords("");
+		dict.enableSuffixIndex();
+		
+		for (String suffix : new String[] {"tion", "ement", "x", "ee"}) {
+			List<String> expected = all.stream().filter(w -> w.endsWith(suffix)).collect(Collectors.toList());
+			assertEquals(expected, dict.getWordsEndingWith(suffix));
+			
+			List<String> combined = expected.stream().filter(w -> w.startsWith("re")).collect(Collectors.toList());
+			assertEquals(combined, dict.getWords("re", suffix));
+		}
+		assertEquals(Arrays.asList("maison"), dict.getWords("mais", "son"));
+		
+		dict.pack();
+		assertEquals(dict.getWords("", "tion"), dict.getWordsEndingWith("tion"));
+		assertTrue(dict.stats().estimatedBytes() > 0);
+	}
+	
+	//BATCH
+	@Test
+	void filterPresent_small_batch() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		
+		List<String> queries = Arrays.asList("but", "zebre", "as", "", "a", "but", "aux-", "bu", "au", "Au");
+		BitSet hits = dict.filterPresent(queries);
+		for (int i = 0; i < queries.size(); i++) {
+			assertEquals(dict.containsWord(queries.get(i)), hits.get(i), queries.get(i));
+		}
+		assertEquals(5, hits.cardinality());
+		
+		assertTrue(dict.containsAll(Arrays.asList("as", "au", "but", "as")));
+		assertFalse(dict.containsAll(Arrays.asList("as", "au", "zebre")));
+		assertTrue(dict.containsAll(new ArrayList<String>()));
+		assertTrue(dict.filterPresent(new ArrayList<String>()).isEmpty());
+	}
+	
+	@Test
+	void filterPresent_same_as_containsWord() {
+		String filename = "mots/dictionnaire_FR_sans_accents.txt";
+		LexicographicTree dict = new LexicographicTree(filename);
+		List<String> words = dict.getWords("");
+		
+		Random random = new Random(24);
+		List<CharSequence> queries = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			String word = words.get(random.nextInt(words.size()));
+			switch (random.nextInt(4)) {
+			case 0 -> queries.add(word + "s");
+			case 1 -> queries.add(new StringBuilder(word.substring(0, word.length() / 2)));
+			default -> queries.add(word);
+			}
+		}
+		
+		BitSet expected = new BitSet();
+		for (int i = 0; i < queries.size(); i++) {
+			expected.set(i, dict.containsWord(queries.get(i)));
+		}
+		assertEquals(expected, dict.filterPresent(queries));
+		
+		dict.enableBloomFilter(0.01);
+		assertEquals(expected, dict.filterPresent(queries));
+		dict.pack();
+		assertEquals(expected, dict.filterPresent(queries));
+		assertEquals(expected, LexicographicTree.loadOffHeap(filename).filterPresent(queries));
+		assertTrue(dict.containsAll(words.subList(1000, 3000)));
+	}
+	
+	//INFIX
+	@Test
+	void getWordsContaining_with_and_without_index() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		List<String> scan = dict.getWordsContaining("u");
+		assertFalse(dict.hasInfixIndex());
+		assertEquals(0, dict.infixIndexBytes());
+		
+		dict.enableInfixIndex();
+		assertTrue(dict.hasInfixIndex());
+		assertTrue(dict.infixIndexBytes() > 0);
+		assertEquals(scan, dict.getWordsContaining("u"));
+		assertEquals(Arrays.asList("bu", "bus", "but"), dict.getWordsContaining("bu"));
+		assertEquals(dict.getWords(""), dict.getWordsContaining(""));
+		assertTrue(dict.getWordsContaining("zz").isEmpty());
+		assertTrue(dict.getWordsContaining("U").isEmpty());
+		
+		dict.insertWord("bateau");
+		assertTrue(dict.removeWord("aux"));
+		assertEquals(Arrays.asList("au", "bateau"), dict.getWordsContaining("au"));
+		assertEquals(Arrays.asList("bateau"), dict.getWordsContaining("teau"));
+		assertTrue(dict.getWordsContaining("aux").isEmpty());
+		dict.insertWord("aux");
+		assertEquals(Arrays.asList("aux"), dict.getWordsContaining("ux"));
+		
+		LexicographicTree snapshot = dict.freeze();
+		dict.insertWord("gateau");
+		assertEquals(Arrays.asList("bateau"), snapshot.getWordsContaining("ate"));
+		assertEquals(Arrays.asList("bateau", "gateau"), dict.getWordsContaining("ate"));
+		assertEquals(Arrays.asList("bateau"), snapshot.view().getWordsContaining("ate"));
+		
+		dict.disableInfixIndex();
+		assertEquals(0, dict.infixIndexBytes());
+		assertEquals(Arrays.asList("bateau", "gateau"), dict.getWordsContaining("ate"));
+	}
+	
+	@Test
+	void getWordsContaining_accented_words() {
+		LexicographicTree dict = new LexicographicTree();
+		LexicographicTree indexed = new LexicographicTree();
+		for (String word : new String[] {"caf", "café", "cafés", "bébé", "a", "été"}) {
+			dict.insertWord(word);
+			indexed.insertWord(word);
+		}
+		indexed.enableInfixIndex();
+		
+		for (String infix : new String[] {"é", "fé", "bé", "afé", "afés", "ét", "caf", "a"}) {
+			assertEquals(dict.getWordsContaining(infix), indexed.getWordsContaining(infix), infix);
+		}
+		
+		assertTrue(indexed.removeWord("café"));
+		assertTrue(indexed.removeWord("a"));
+		assertEquals(Arrays.asList("caf", "cafés"), indexed.getWordsContaining("caf"));
+		assertEquals(Arrays.asList("bébé", "cafés", "été"), indexed.getWordsContaining("é"));
+		assertFalse(indexed.removeWord("café"));
+		indexed.insertWord("café");
+		assertEquals(Arrays.asList("caf", "café", "cafés"), indexed.getWordsContaining("caf"));
+		assertTrue(indexed.removeWord("café"));
+		assertEquals(Arrays.asList("caf", "cafés"), indexed.getWordsContaining("af"));
+	}
+	
+	@Test
+	void getWordsContaining_same_as_scan() {
+		LexicographicTree dict = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		List<String> all = dict.getWords("");
+		long before = dict.stats().estimatedBytes();
+		dict.enableInfixIndex();
+		assertEquals(before + dict.infixIndexBytes(), dict.stats().estimatedBytes());
+		
+		for (String infix : new String[] {"w", "qu", "ois", "tion", "ement", "aaa", "abcdef"}) {
+			List<String> expected = all.stream().filter(w -> w.contains(infix)).collect(Collectors.toList());
+			assertEquals(expected, dict.getWordsContaining(infix), infix);
+		}
+	}
 }
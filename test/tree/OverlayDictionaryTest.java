@@ -0,0 +1,114 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class OverlayDictionaryTest {
+	private static final String[] WORDS = new String[] {"aide", "as", "au", "aux",
+			"bu", "bus", "but", "et", "ete"};
+
+	private static LexicographicTree base() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		return dict.freeze();
+	}
+
+	@Test
+	void empty_overlay_is_the_base() {
+		LexicographicTree base = base();
+		OverlayDictionary overlay = new OverlayDictionary(base);
+		assertSame(base, overlay.base());
+		assertEquals(WORDS.length, overlay.size());
+		assertEquals(Arrays.asList(WORDS), overlay.getWords(""));
+		assertEquals(Arrays.asList("bu", "bus", "but"), overlay.getWords("bu"));
+		assertTrue(overlay.containsWord("aux"));
+		assertTrue(overlay.existPrefix("et"));
+		assertFalse(overlay.existPrefix("z"));
+	}
+
+	@Test
+	void merged_view_with_additions_and_removals() {
+		LexicographicTree base = base();
+		OverlayDictionary overlay = new OverlayDictionary(base);
+		overlay.insertWord("buse");
+		overlay.insertWord("zebre");
+		overlay.insertWord("bus");
+		assertTrue(overlay.removeWord("but"));
+		assertTrue(overlay.removeWord("bu"));
+		assertFalse(overlay.removeWord("bu"));
+		assertTrue(overlay.removeWord("zebre"));
+		assertFalse(overlay.removeWord("zebre"));
+		assertTrue(overlay.removeWord("et"));
+		assertTrue(overlay.removeWord("ete"));
+		
+		assertEquals(Arrays.asList("aide", "as", "au", "aux", "bus", "buse"), overlay.getWords(""));
+		assertEquals(Arrays.asList("bus", "buse"), overlay.getWords("bu"));
+		assertEquals(WORDS.length - 3, overlay.size());
+		assertFalse(overlay.containsWord("but"));
+		assertFalse(overlay.existPrefix("e"));
+		assertFalse(overlay.existPrefix("z"));
+		assertEquals(2, overlay.countWords("bu"));
+		assertEquals(Arrays.asList("buse"), overlay.getAddedWords());
+		assertEquals(Arrays.asList("bu", "but", "et", "ete"), overlay.getRemovedWords());
+		
+		TrieCursor cursor = overlay.cursor();
+		assertTrue(cursor.advance('b'));
+		assertTrue(cursor.advance('u'));
+		assertFalse(cursor.isWord());
+		assertFalse(cursor.advance('t'));
+		assertTrue(cursor.advance('s'));
+		assertTrue(cursor.isWord());
+		assertTrue(cursor.hasChildren());
+		cursor.reset(0);
+		assertFalse(cursor.advance('e'));
+		
+		// La base partagée n'est pas modifiée
+		assertEquals(Arrays.asList(WORDS), base.getWords(""));
+		overlay.insertWord("et");
+		assertTrue(overlay.existPrefix("e"));
+		assertEquals(Arrays.asList("et"), overlay.getWords("e"));
+	}
+
+	@Test
+	void same_results_as_a_full_copy() {
+		LexicographicTree base = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt").freeze();
+		OverlayDictionary overlay = new OverlayDictionary(base);
+		LexicographicTree copy = new LexicographicTree();
+		base.getWords("").forEach(copy::insertWord);
+		
+		List<String> words = base.getWords("ma");
+		Random random = new Random(7);
+		for (int i = 0; i < 3000; i++) {
+			String word = random.nextBoolean() ? words.get(random.nextInt(words.size()))
+					: "ma" + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26));
+			if (random.nextInt(3) == 0) {
+				overlay.insertWord(word);
+				copy.insertWord(word);
+			} else {
+				assertEquals(copy.removeWord(word), overlay.removeWord(word));
+			}
+		}
+		
+		assertEquals(copy.size(), overlay.size());
+		for (String prefix : new String[] {"ma", "mai", "mar", "maz", "m", ""}) {
+			assertEquals(copy.getWords(prefix), overlay.getWords(prefix), prefix);
+			assertEquals(copy.existPrefix(prefix), overlay.existPrefix(prefix), prefix);
+			assertEquals(copy.countWords(prefix), overlay.countWords(prefix), prefix);
+		}
+		
+		List<String> missing = new ArrayList<>(words);
+		missing.removeIf(copy::containsWord);
+		for (String word : missing) {
+			assertFalse(overlay.containsWord(word));
+		}
+		assertTrue(overlay.overlayBytes() < base.stats().estimatedBytes() / 10);
+	}
+}